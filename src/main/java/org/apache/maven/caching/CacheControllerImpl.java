@@ -41,7 +41,6 @@
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -65,7 +64,6 @@
 import org.apache.maven.caching.xml.build.DigestItem;
 import org.apache.maven.caching.xml.build.ProjectsInputInfo;
 import org.apache.maven.caching.xml.build.Scm;
-import org.apache.maven.caching.xml.config.PropertyName;
 import org.apache.maven.caching.xml.config.TrackedProperty;
 import org.apache.maven.caching.xml.diff.Diff;
 import org.apache.maven.caching.xml.report.CacheReport;
@@ -541,14 +539,16 @@ public void produceDiffReport( CacheResult cacheResult, Build build )
                         xmlService.toBytes( build.getDto() ), TRUNCATE_EXISTING, CREATE );
                 Files.write( reportOutputDir.resolve( "buildsdiff-" + checksum + ".xml" ),
                         xmlService.toBytes( diff ), TRUNCATE_EXISTING, CREATE );
-                final Optional<DigestItem> pom = CacheDiff.findPom( build.getDto().getProjectsInputInfo() );
+                final Optional<DigestItem> pom = CacheDiff.findPom( build.getDto().getProjectsInputInfo() )
+                        .filter( item -> item.getValue() != null );
                 if ( pom.isPresent() )
                 {
                     Files.write( reportOutputDir.resolve( "effective-pom-" + checksum + ".xml" ),
                             pom.get().getValue().getBytes( StandardCharsets.UTF_8 ),
                             TRUNCATE_EXISTING, CREATE );
                 }
-                final Optional<DigestItem> baselinePom = CacheDiff.findPom( baselineInputs );
+                final Optional<DigestItem> baselinePom = CacheDiff.findPom( baselineInputs )
+                        .filter( item -> item.getValue() != null );
                 if ( baselinePom.isPresent() )
                 {
                     Files.write( reportOutputDir.resolve(
@@ -621,9 +621,9 @@ private void recordMojoProperties( CompletedExecution execution, MojoExecutionEv
         final MojoExecution mojoExecution = executionEvent.getExecution();
 
         final boolean logAll = cacheConfig.isLogAllProperties( mojoExecution );
-        List<TrackedProperty> trackedProperties = cacheConfig.getTrackedProperties( mojoExecution );
-        List<PropertyName> noLogProperties = cacheConfig.getNologProperties( mojoExecution );
-        List<PropertyName> forceLogProperties = cacheConfig.getLoggedProperties( mojoExecution );
+        final Set<String> trackedProperties = cacheConfig.getTrackedPropertyNames( mojoExecution );
+        final Set<String> noLogProperties = cacheConfig.getNologPropertyNames( mojoExecution );
+        final Set<String> forceLogProperties = cacheConfig.getLoggedPropertyNames( mojoExecution );
         final Mojo mojo = executionEvent.getMojo();
 
         final File baseDir = executionEvent.getProject().getBasedir();
@@ -639,7 +639,7 @@ private void recordMojoProperties( CompletedExecution execution, MojoExecutionEv
             }
 
             final String propertyName = parameter.getName();
-            final boolean tracked = isTracked( propertyName, trackedProperties );
+            final boolean tracked = trackedProperties.contains( propertyName );
             if ( !tracked && isExcluded( propertyName, logAll, noLogProperties, forceLogProperties ) )
             {
                 continue;
@@ -662,48 +662,22 @@ private void recordMojoProperties( CompletedExecution execution, MojoExecutionEv
         }
     }
 
-    private boolean isExcluded( String propertyName, boolean logAll, List<PropertyName> excludedProperties,
-            List<PropertyName> forceLogProperties )
+    private boolean isExcluded( String propertyName, boolean logAll, Set<String> excludedProperties,
+            Set<String> forceLogProperties )
     {
         if ( !forceLogProperties.isEmpty() )
         {
-            for ( PropertyName logProperty : forceLogProperties )
-            {
-                if ( StringUtils.equals( propertyName, logProperty.getPropertyName() ) )
-                {
-                    return false;
-                }
-            }
-            return true;
+            return !forceLogProperties.contains( propertyName );
         }
 
         if ( !excludedProperties.isEmpty() )
         {
-            for ( PropertyName excludedProperty : excludedProperties )
-            {
-                if ( StringUtils.equals( propertyName, excludedProperty.getPropertyName() ) )
-                {
-                    return true;
-                }
-            }
-            return false;
+            return excludedProperties.contains( propertyName );
         }
 
         return !logAll;
     }
 
-    private boolean isTracked( String propertyName, List<TrackedProperty> trackedProperties )
-    {
-        for ( TrackedProperty trackedProperty : trackedProperties )
-        {
-            if ( StringUtils.equals( propertyName, trackedProperty.getPropertyName() ) )
-            {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private boolean isCachedSegmentPropertiesPresent( MavenProject project, Build build,
             List<MojoExecution> mojoExecutions )
     {
@@ -935,14 +909,6 @@ public FileVisitResult visitFile( Path path, BasicFileAttributes basicFileAttrib
 
     private boolean isOutputArtifact( String name )
     {
-        List<Pattern> excludePatterns = cacheConfig.getExcludePatterns();
-        for ( Pattern pattern : excludePatterns )
-        {
-            if ( pattern.matcher( name ).matches() )
-            {
-                return false;
-            }
-        }
-        return true;
+        return !cacheConfig.isOutputExcluded( name );
     }
 }
@@ -26,8 +26,10 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.caching.checksum.MerkleTree;
 import org.apache.maven.caching.xml.CacheConfig;
 import org.apache.maven.caching.xml.build.Build;
 import org.apache.maven.caching.xml.build.CompletedExecution;
@@ -111,12 +113,19 @@ public static Optional<DigestItem> findPom( ProjectsInputInfo projectInputs )
     @SuppressWarnings( "checkstyle:LineLength" )
     private void compareFiles( ProjectsInputInfo current, ProjectsInputInfo baseline )
     {
+        // with merkle trees recorded, files outside of changed directories are known to be equal
+        final Set<String> changedDirectories = MerkleTree.changedDirectories( current.getDirectories(),
+                baseline.getDirectories() );
+        final Predicate<DigestItem> comparedFile = item -> "file".equals( item.getType() )
+                && ( changedDirectories == null
+                        || changedDirectories.contains( MerkleTree.parent( item.getValue() ) ) );
+
         final Map<String, DigestItem> currentFiles = current.getItems().stream()
-                .filter( item -> "file".equals( item.getType() ) )
+                .filter( comparedFile )
                 .collect( Collectors.toMap( DigestItem::getValue, item -> item ) );
 
         final Map<String, DigestItem> baselineFiles = baseline.getItems().stream()
-                .filter( item -> "file".equals( item.getType() ) )
+                .filter( comparedFile )
                 .collect( Collectors.toMap( DigestItem::getValue, item -> item ) );
 
         if ( !Objects.equals( currentFiles.keySet(), baselineFiles.keySet() ) )
@@ -24,6 +24,7 @@
 import org.apache.maven.MavenExecutionException;
 import org.apache.maven.SessionScoped;
 import org.apache.maven.caching.xml.CacheConfig;
+import org.apache.maven.caching.xml.CacheState;
 import org.apache.maven.execution.MavenSession;
 
 @SessionScoped
@@ -34,12 +35,26 @@ public class CacheLifecycleParticipant extends AbstractMavenLifecycleParticipant
 
     private final CacheConfig cacheConfig;
     private final CacheController cacheController;
+    private final LocalCacheRepository localCache;
+    private final ProjectInputCalculator projectInputCalculator;
 
     @Inject
-    public CacheLifecycleParticipant( CacheConfig cacheConfig, CacheController cacheController )
+    public CacheLifecycleParticipant( CacheConfig cacheConfig, CacheController cacheController,
+            LocalCacheRepository localCache, ProjectInputCalculator projectInputCalculator )
     {
         this.cacheConfig = cacheConfig;
         this.cacheController = cacheController;
+        this.localCache = localCache;
+        this.projectInputCalculator = projectInputCalculator;
+    }
+
+    @Override
+    public void afterProjectsRead( MavenSession session ) throws MavenExecutionException
+    {
+        if ( cacheConfig.isPrecalculateEnabled() && cacheConfig.initialize() == CacheState.INITIALIZED )
+        {
+            projectInputCalculator.precalculateInputs( session.getProjects() );
+        }
     }
 
     @Override
@@ -48,6 +63,7 @@ public void afterSessionEnd( MavenSession session ) throws MavenExecutionExcepti
         if ( cacheConfig.isEnabled() )
         {
             cacheController.saveCacheReport( session );
+            localCache.saveFileHashIndexes();
         }
     }
 }
@@ -19,6 +19,9 @@
 package org.apache.maven.caching;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -34,10 +37,12 @@
 import javax.inject.Named;
 import org.apache.maven.SessionScoped;
 import org.apache.maven.caching.checksum.KeyUtils;
+import org.apache.maven.caching.hash.HashFactory;
 import org.apache.maven.caching.xml.CacheConfig;
 import org.apache.maven.caching.xml.config.Discovery;
 import org.apache.maven.caching.xml.config.MultiModule;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Profile;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
@@ -47,6 +52,8 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.apache.maven.caching.checksum.MavenProjectInput.CACHE_IMPLEMENTATION_VERSION;
+
 @SessionScoped
 @Named
 public class DefaultMultiModuleSupport implements MultiModuleSupport
@@ -54,6 +61,12 @@ public class DefaultMultiModuleSupport implements MultiModuleSupport
 
     private static final Logger LOGGER = LoggerFactory.getLogger( DefaultMultiModuleSupport.class );
 
+    private static final String[] DISCOVERY_SYSTEM_PROPERTIES = { "java.version", "java.vendor", "os.name", "os.arch",
+            "os.version", "os.family", "maven.version" };
+
+    private static final String[] DISCOVERY_CONFIG_FILES = { ".mvn/maven.config", ".mvn/jvm.config",
+            ".mvn/extensions.xml" };
+
     private final ProjectBuilder projectBuilder;
     private final CacheConfig cacheConfig;
     private final MavenSession session;
@@ -61,6 +74,7 @@ public class DefaultMultiModuleSupport implements MultiModuleSupport
     private volatile boolean built;
     private volatile Map<String, MavenProject> projectMap;
     private volatile Map<String, MavenProject> sessionProjectMap;
+    private volatile LazyModuleResolver lazyModuleResolver;
 
     @Inject
     public DefaultMultiModuleSupport( ProjectBuilder projectBuilder,
@@ -82,6 +96,11 @@ public boolean isPartOfSession( String groupId, String artifactId, String versio
     @Override
     public Optional<MavenProject> tryToResolveProject( String groupId, String artifactId, String version )
     {
+        final LazyModuleResolver resolver = getLazyModuleResolver();
+        if ( resolver != null )
+        {
+            return resolver.resolve( groupId, artifactId, version );
+        }
         return Optional.ofNullable( getMultiModuleProjectsMap()
                 .get( KeyUtils.getProjectKey( groupId, artifactId, version ) ) );
     }
@@ -90,8 +109,13 @@ public Optional<MavenProject> tryToResolveProject( String groupId, String artifa
     public boolean isPartOfMultiModule( String groupId, String artifactId, String version )
     {
         String projectKey = KeyUtils.getProjectKey( groupId, artifactId, version );
-        return getProjectMap( session ).containsKey( projectKey )
-                || getMultiModuleProjectsMap().containsKey( projectKey );
+        if ( getProjectMap( session ).containsKey( projectKey ) )
+        {
+            return true;
+        }
+        final LazyModuleResolver resolver = getLazyModuleResolver();
+        return resolver != null ? resolver.contains( groupId, artifactId, version )
+                : getMultiModuleProjectsMap().containsKey( projectKey );
     }
 
     private Map<String, MavenProject> getProjectMap( MavenSession session )
@@ -106,6 +130,19 @@ private Map<String, MavenProject> getProjectMap( MavenSession session )
         return sessionProjectMap;
     }
 
+    /**
+     * @return resolver if multi-module project is resolved lazily, null otherwise
+     */
+    private LazyModuleResolver getLazyModuleResolver()
+    {
+        if ( lazyModuleResolver != null || projectMap != null )
+        {
+            return lazyModuleResolver;
+        }
+        getMultiModuleProjectsMapInner( session );
+        return lazyModuleResolver;
+    }
+
     private Map<String, MavenProject> getMultiModuleProjectsMap()
     {
         if ( projectMap != null )
@@ -117,7 +154,7 @@ private Map<String, MavenProject> getMultiModuleProjectsMap()
 
     private synchronized Map<String, MavenProject> getMultiModuleProjectsMapInner( MavenSession session )
     {
-        if ( projectMap != null )
+        if ( projectMap != null || lazyModuleResolver != null )
         {
             return projectMap;
         }
@@ -180,6 +217,30 @@ private synchronized void buildModel( MavenSession session )
             profiles.addAll( scanProfiles );
             buildingRequest.setActiveProfileIds( new ArrayList<>( profiles ) );
         }
+
+        final DiscoveryModelStore store = cacheConfig.isPersistDiscoveryEnabled()
+                ? discoveryModelStore( session, multiModulePomFile, buildingRequest ) : null;
+        if ( store != null )
+        {
+            final Optional<List<MavenProject>> stored = store.load( currentProject );
+            if ( stored.isPresent() )
+            {
+                LOGGER.info( "Multi module project model loaded from the previous discovery [activeProfiles={}, "
+                        + "time={} ms", buildingRequest.getActiveProfileIds(), System.currentTimeMillis() - t0 );
+                projectMap = buildProjectMap( stored.get() );
+                built = true;
+                return;
+            }
+        }
+        if ( cacheConfig.isLazyDiscoveryEnabled() )
+        {
+            final LazyModuleResolver resolver = new LazyModuleResolver( projectBuilder, buildingRequest,
+                    multiModulePomFile.toPath() );
+            resolver.prefetch( session.getProjects() );
+            lazyModuleResolver = resolver;
+            built = true;
+            return;
+        }
         try
         {
             List<ProjectBuildingResult> buildingResults = projectBuilder.build(
@@ -192,7 +253,10 @@ private synchronized void buildModel( MavenSession session )
             List<MavenProject> projectList = buildingResults.stream().map( ProjectBuildingResult::getProject )
                     .collect( Collectors.toList() );
             projectMap = buildProjectMap( projectList );
-
+            if ( store != null )
+            {
+                store.save( projectList );
+            }
         }
         catch ( ProjectBuildingException e )
         {
@@ -204,6 +268,56 @@ private synchronized void buildModel( MavenSession session )
         }
     }
 
+    /**
+     * Store of the discovery result for the multi-module root, fingerprinted with everything the request passes to
+     * model building
+     */
+    private DiscoveryModelStore discoveryModelStore( MavenSession session, File multiModulePomFile,
+            ProjectBuildingRequest buildingRequest )
+    {
+        final Properties userProperties = buildingRequest.getUserProperties();
+        final Properties systemProperties = buildingRequest.getSystemProperties();
+        final StringBuilder context = new StringBuilder();
+        context.append( multiModulePomFile.getAbsolutePath() ).append( '\n' )
+                .append( buildingRequest.getActiveProfileIds() ).append( '\n' )
+                .append( buildingRequest.getInactiveProfileIds() ).append( '\n' )
+                .append( buildingRequest.getProfiles().stream().map( Profile::getId ).collect( Collectors.toList() ) )
+                .append( '\n' );
+        for ( String name : new TreeSet<>( userProperties.stringPropertyNames() ) )
+        {
+            context.append( name ).append( '=' ).append( userProperties.getProperty( name ) ).append( '\n' );
+        }
+        // inputs of profile activation
+        for ( String name : DISCOVERY_SYSTEM_PROPERTIES )
+        {
+            context.append( name ).append( '=' ).append( systemProperties.getProperty( name ) ).append( '\n' );
+        }
+
+        // settings profiles and .mvn configs are not visible in the request as a whole
+        final Path root = CacheUtils.getMultimoduleRoot( session );
+        final List<Path> configFiles = new ArrayList<>();
+        for ( String configFile : DISCOVERY_CONFIG_FILES )
+        {
+            configFiles.add( root.resolve( configFile ).toAbsolutePath().normalize() );
+        }
+        for ( File settingsFile : new File[] { session.getRequest().getUserSettingsFile(),
+                session.getRequest().getGlobalSettingsFile() } )
+        {
+            if ( settingsFile != null )
+            {
+                configFiles.add( settingsFile.toPath().toAbsolutePath().normalize() );
+            }
+        }
+
+        final HashFactory hashFactory = cacheConfig.getHashFactory();
+        final String rootKey = hashFactory.createAlgorithm()
+                .hash( multiModulePomFile.getAbsolutePath().getBytes( StandardCharsets.UTF_8 ) );
+        final Path storeFile = Paths.get( session.getLocalRepository().getBasedir(), "..", "cache",
+                CACHE_IMPLEMENTATION_VERSION, "discovery", rootKey + ".bin" ).normalize();
+        return new DiscoveryModelStore( storeFile, hashFactory, context.toString(), configFiles,
+                name -> userProperties.getProperty( name, systemProperties.getProperty( name ) ) );
+    }
+
     private Map<String, MavenProject> buildProjectMap( List<MavenProject> projectList )
     {
         return projectList.stream().collect( Collectors.toMap(
@@ -18,17 +18,33 @@
  */
 package org.apache.maven.caching;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.apache.maven.SessionScoped;
+import org.apache.maven.caching.checksum.GitIndex;
+import org.apache.maven.caching.checksum.GlobMatchers;
 import org.apache.maven.caching.checksum.MavenProjectInput;
 import org.apache.maven.caching.xml.CacheConfig;
 import org.apache.maven.caching.xml.build.ProjectsInputInfo;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.lifecycle.internal.builder.BuilderCommon;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.repository.RepositorySystem;
@@ -48,11 +64,13 @@ public class DefaultProjectInputCalculator implements ProjectInputCalculator
     private final RepositorySystem repoSystem;
     private final NormalizedModelProvider normalizedModelProvider;
     private final MultiModuleSupport multiModuleSupport;
+    private final LocalCacheRepository localCache;
 
-    private final ConcurrentMap<String, ProjectsInputInfo> checkSumMap = new ConcurrentHashMap<>();
-
-    private static final ThreadLocal<Set<String>> CURRENTLY_CALCULATING = ThreadLocal.withInitial(
-            LinkedHashSet::new );
+    private final ConcurrentMap<String, CompletableFuture<ProjectsInputInfo>> checkSumMap = new ConcurrentHashMap<>();
+    private final GlobMatchers globMatchers = new GlobMatchers();
+    private GitIndex gitIndex;
+    private boolean gitIndexLoaded;
+    private ForkJoinPool executor;
 
     @Inject
     public DefaultProjectInputCalculator( MavenSession mavenSession,
@@ -60,7 +78,8 @@ public DefaultProjectInputCalculator( MavenSession mavenSession,
             CacheConfig cacheConfig,
             RepositorySystem repoSystem,
             NormalizedModelProvider rawModelProvider,
-            MultiModuleSupport multiModuleSupport )
+            MultiModuleSupport multiModuleSupport,
+            LocalCacheRepository localCache )
     {
         this.mavenSession = mavenSession;
         this.remoteCache = remoteCache;
@@ -68,6 +87,7 @@ public DefaultProjectInputCalculator( MavenSession mavenSession,
         this.repoSystem = repoSystem;
         this.normalizedModelProvider = rawModelProvider;
         this.multiModuleSupport = multiModuleSupport;
+        this.localCache = localCache;
     }
 
     @Override
@@ -75,33 +95,198 @@ public ProjectsInputInfo calculateInput( MavenProject project )
     {
         LOGGER.info( "Going to calculate checksum for project [groupId=" + project.getGroupId()
                 + ", artifactId=" + project.getArtifactId() + "]" );
+        try
+        {
+            return calculation( project, new LinkedHashSet<>() ).join();
+        }
+        catch ( CompletionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Single calculation per project shared by all requesters. Calculation of a project starts when calculations of
+     * its upstream projects complete, so a calculation is registered only after all its upstream calculations are
+     * registered and the registered calculations never form a cycle.
+     *
+     * @param path projects on the way from the requested project, used to detect cyclic dependencies
+     */
+    private CompletableFuture<ProjectsInputInfo> calculation( MavenProject project, Set<String> path )
+    {
+        final String key = BuilderCommon.getKey( project );
+        final CompletableFuture<ProjectsInputInfo> existing = checkSumMap.get( key );
+        if ( existing != null )
+        {
+            return existing;
+        }
+        if ( !path.add( key ) )
+        {
+            throw new IllegalStateException( "Cyclic dependencies between projects: " + path + " -> " + key );
+        }
+        final List<CompletableFuture<ProjectsInputInfo>> upstream = new ArrayList<>();
+        try
+        {
+            for ( MavenProject upstreamProject : upstreamProjects( project ) )
+            {
+                upstream.add( calculation( upstreamProject, path ) );
+            }
+        }
+        finally
+        {
+            path.remove( key );
+        }
 
-        String key = BuilderCommon.getKey( project );
-        //NOTE: Do not use ConcurrentHashMap.computeIfAbsent() here because of recursive calls
-        //this could lead to runtime exception - IllegalStateException("Recursive update")
-        //in jdk 8 the result of attempt to modify items with the same hash code could lead to infinite loop
-        ProjectsInputInfo projectsInputInfo = checkSumMap.get( key );
-        if ( projectsInputInfo != null )
+        final CompletableFuture<ProjectsInputInfo> future = new CompletableFuture<>();
+        final CompletableFuture<ProjectsInputInfo> concurrent = checkSumMap.putIfAbsent( key, future );
+        if ( concurrent != null )
         {
-            return projectsInputInfo;
+            return concurrent;
         }
-        projectsInputInfo = calculateInputInternal( key, project );
-        checkSumMap.put( key, projectsInputInfo );
-        return projectsInputInfo;
+        // calculations of dependents of the same upstream project run in parallel, not on the completing thread
+        CompletableFuture.allOf( upstream.toArray( new CompletableFuture[0] ) ).whenCompleteAsync( ( ignored, error ) ->
+        {
+            try
+            {
+                if ( error != null )
+                {
+                    throw error instanceof CompletionException ? error.getCause() : error;
+                }
+                future.complete( calculateInputInternal( project ) );
+            }
+            catch ( Throwable e )
+            {
+                // failed calculation is not cached, next request retries it
+                checkSumMap.remove( key, future );
+                future.completeExceptionally( e );
+            }
+        }, getExecutor() );
+        return future;
+    }
 
+    /**
+     * @return projects of the multi-module build the project depends on, the same as checksum calculation resolves
+     */
+    private List<MavenProject> upstreamProjects( MavenProject project )
+    {
+        final List<MavenProject> upstream = new ArrayList<>();
+        for ( Dependency dependency : project.getDependencies() )
+        {
+            if ( !CacheUtils.isPom( dependency ) )
+            {
+                multiModuleSupport.tryToResolveProject( dependency.getGroupId(), dependency.getArtifactId(),
+                        dependency.getVersion() ).ifPresent( upstream::add );
+            }
+        }
+        return upstream;
     }
 
-    private ProjectsInputInfo calculateInputInternal( String key,
-            MavenProject project )
+    /**
+     * Calculates inputs in topological waves: a wave consists of projects which upstream projects are calculated by
+     * previous waves, projects of a wave are calculated in parallel
+     */
+    @Override
+    public void precalculateInputs( List<MavenProject> projects )
     {
-        Set<String> projectsSet = CURRENTLY_CALCULATING.get();
+        final long t0 = System.currentTimeMillis();
+        final Map<String, MavenProject> nodes = new LinkedHashMap<>();
+        final Map<String, Set<String>> upstreams = new HashMap<>();
+        final Deque<MavenProject> queue = new ArrayDeque<>( projects );
+        while ( !queue.isEmpty() )
+        {
+            final MavenProject project = queue.poll();
+            final String key = BuilderCommon.getKey( project );
+            if ( nodes.putIfAbsent( key, project ) != null )
+            {
+                continue;
+            }
+            final Set<String> upstream = new HashSet<>();
+            for ( MavenProject upstreamProject : upstreamProjects( project ) )
+            {
+                upstream.add( BuilderCommon.getKey( upstreamProject ) );
+                queue.add( upstreamProject );
+            }
+            upstreams.put( key, upstream );
+        }
+
+        final Set<String> calculated = new HashSet<>();
+        for ( Map.Entry<String, CompletableFuture<ProjectsInputInfo>> entry : checkSumMap.entrySet() )
+        {
+            if ( entry.getValue().isDone() && !entry.getValue().isCompletedExceptionally() )
+            {
+                calculated.add( entry.getKey() );
+            }
+        }
+        final Set<String> remaining = new LinkedHashSet<>( nodes.keySet() );
+        remaining.removeAll( calculated );
+        final ForkJoinPool executor = getExecutor();
+        final List<Future<ProjectsInputInfo>> submitted = new ArrayList<>();
+        int waves = 0;
+        try
+        {
+            while ( !remaining.isEmpty() )
+            {
+                final List<String> wave = new ArrayList<>();
+                for ( String key : remaining )
+                {
+                    if ( calculated.containsAll( upstreams.get( key ) ) )
+                    {
+                        wave.add( key );
+                    }
+                }
+                if ( wave.isEmpty() )
+                {
+                    // upstream failed or cyclic dependencies, left for calculation on demand
+                    break;
+                }
+                remaining.removeAll( wave );
+                waves++;
 
-        if ( !projectsSet.add( key ) )
+                final Map<String, Future<ProjectsInputInfo>> futures = new LinkedHashMap<>();
+                for ( String key : wave )
+                {
+                    final MavenProject project = nodes.get( key );
+                    final Future<ProjectsInputInfo> future = executor.submit( () -> calculateInput( project ) );
+                    futures.put( key, future );
+                    submitted.add( future );
+                }
+                for ( Map.Entry<String, Future<ProjectsInputInfo>> entry : futures.entrySet() )
+                {
+                    try
+                    {
+                        entry.getValue().get();
+                        calculated.add( entry.getKey() );
+                    }
+                    catch ( ExecutionException e )
+                    {
+                        LOGGER.warn( "Cannot precalculate checksum of {}, it will be calculated on demand: {}",
+                                entry.getKey(), e.getCause().toString() );
+                    }
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
         {
-            throw new IllegalStateException( "Checksum for project is already calculating. "
-                    + "Is there a cyclic dependencies? [project=" + key
-                    + ", setOfCalculatingProjects=" + projectsSet + "]" );
+            // the executor is shared, only tasks of this precalculation are cancelled
+            for ( Future<ProjectsInputInfo> future : submitted )
+            {
+                future.cancel( false );
+            }
         }
+        LOGGER.info( "Precalculated checksums of {} of {} projects in {} waves using {} threads, {} ms",
+                calculated.size(), nodes.size(), waves, executor.getParallelism(), System.currentTimeMillis() - t0 );
+    }
+
+    private ProjectsInputInfo calculateInputInternal( MavenProject project )
+    {
         try
         {
             final MavenProjectInput input = new MavenProjectInput(
@@ -112,16 +297,45 @@ private ProjectsInputInfo calculateInputInternal( String key,
                     mavenSession,
                     cacheConfig,
                     repoSystem,
-                    remoteCache );
+                    remoteCache,
+                    localCache,
+                    localCache.getFileHashIndex( mavenSession, project ),
+                    localCache.getDependencyHashIndex( mavenSession ),
+                    getGitIndex(),
+                    globMatchers,
+                    getExecutor() );
             return input.calculateChecksum();
         }
         catch ( Exception e )
         {
             throw new RuntimeException( "Failed to calculate checksums for " + project.getArtifactId(), e );
         }
-        finally
+    }
+
+    /**
+     * @return executor shared by calculations of all projects in the session. Threads of the idle pool terminate, so
+     * the pool is not shut down explicitly
+     */
+    private synchronized ForkJoinPool getExecutor()
+    {
+        if ( executor == null )
+        {
+            executor = new ForkJoinPool( cacheConfig.getHashingThreads() );
+        }
+        return executor;
+    }
+
+    /**
+     * @return git index of multi-module root loaded once per session, null if git index mode is disabled or the index
+     * can't be used
+     */
+    private synchronized GitIndex getGitIndex()
+    {
+        if ( !gitIndexLoaded && cacheConfig.isGitIndexEnabled() )
         {
-            projectsSet.remove( key );
+            gitIndex = GitIndex.load( CacheUtils.getMultimoduleRoot( mavenSession ) );
+            gitIndexLoaded = true;
         }
+        return gitIndex;
     }
 }
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.maven.caching.checksum.MavenProjectInput.CACHE_IMPLEMENTATION_VERSION;
+
+/**
+ * Persisted result of multi-module discovery: effective models of discovered projects with their pom files. Stored
+ * models are reused while the fingerprint is the same: content of pom files of discovered projects and their parents,
+ * content of build configuration files (settings, {@code .mvn} configs), values of properties referenced in these files
+ * or checked by profile activation and the discovery context (profiles, versions of java and maven etc.)
+ * <p>
+ * Projects restored from the store are created from effective models and carry remote repositories of the current
+ * project only: they have no parent project, collected projects or resolved artifacts and are intended for checksum
+ * calculation only.
+ */
+class DiscoveryModelStore
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( DiscoveryModelStore.class );
+
+    private static final String FORMAT = CACHE_IMPLEMENTATION_VERSION + "/discovery/1";
+    private static final Pattern EXPRESSION = Pattern.compile( "\\$\\{([^}]+)}" );
+    private static final Pattern ACTIVATION_PROPERTY = Pattern.compile(
+            "<property>\\s*<name>\\s*!?([^<\\s]+)\\s*</name>" );
+
+    private final Path storeFile;
+    private final HashFactory hashFactory;
+    private final String context;
+    private final List<Path> configFiles;
+    private final Function<String, String> properties;
+
+    /**
+     * @param context discovery settings which affect effective models
+     * @param configFiles build configuration files which may affect effective models, missing files are allowed
+     * @param properties lookup of user, system and environment ({@code env.} prefixed) properties referenced in poms
+     */
+    DiscoveryModelStore( Path storeFile, HashFactory hashFactory, String context, List<Path> configFiles,
+            Function<String, String> properties )
+    {
+        this.storeFile = storeFile;
+        this.hashFactory = hashFactory;
+        this.context = context;
+        this.configFiles = configFiles;
+        this.properties = properties;
+    }
+
+    /**
+     * @param template project which remote repositories are assigned to restored projects
+     * @return stored projects if nothing affecting discovery is changed, empty if store is missing, outdated or corrupted
+     */
+    Optional<List<MavenProject>> load( MavenProject template )
+    {
+        if ( !Files.exists( storeFile ) )
+        {
+            return Optional.empty();
+        }
+        try ( DataInputStream input = new DataInputStream(
+                new GZIPInputStream( Files.newInputStream( storeFile ) ) ) )
+        {
+            if ( !FORMAT.equals( input.readUTF() ) )
+            {
+                return Optional.empty();
+            }
+            final String fingerprint = input.readUTF();
+            final SortedSet<Path> files = new TreeSet<>();
+            for ( int i = input.readInt(); i > 0; i-- )
+            {
+                files.add( new File( input.readUTF() ).toPath() );
+            }
+            if ( !fingerprint.equals( fingerprint( files ) ) )
+            {
+                LOGGER.info( "Multi module project model is changed since the last discovery" );
+                return Optional.empty();
+            }
+
+            final MavenXpp3Reader reader = new MavenXpp3Reader();
+            final int count = input.readInt();
+            final List<MavenProject> projects = new ArrayList<>( count );
+            for ( int i = 0; i < count; i++ )
+            {
+                final File pomFile = new File( input.readUTF() );
+                final byte[] modelBytes = new byte[input.readInt()];
+                input.readFully( modelBytes );
+                final Model model = reader.read( new ByteArrayInputStream( modelBytes ), false );
+                model.setPomFile( pomFile );
+                final MavenProject project = new MavenProject( model );
+                project.setFile( pomFile );
+                project.setRemoteArtifactRepositories( template.getRemoteArtifactRepositories() );
+                project.setPluginArtifactRepositories( template.getPluginArtifactRepositories() );
+                projects.add( project );
+            }
+            return Optional.of( projects );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Cannot read stored multi module project model {}, project will be rediscovered", storeFile,
+                    e );
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores discovered projects, failures are logged and ignored
+     */
+    void save( List<MavenProject> projects )
+    {
+        try
+        {
+            final SortedSet<Path> files = new TreeSet<>();
+            for ( MavenProject project : projects )
+            {
+                for ( MavenProject model = project; model != null; model = model.getParent() )
+                {
+                    if ( model.getFile() != null )
+                    {
+                        files.add( model.getFile().toPath().toAbsolutePath().normalize() );
+                    }
+                }
+            }
+            final String fingerprint = fingerprint( files );
+
+            Files.createDirectories( storeFile.getParent() );
+            final Path tmp = Files.createTempFile( storeFile.getParent(), storeFile.getFileName().toString(), ".tmp" );
+            try
+            {
+                try ( DataOutputStream output = new DataOutputStream(
+                        new GZIPOutputStream( Files.newOutputStream( tmp ) ) ) )
+                {
+                    output.writeUTF( FORMAT );
+                    output.writeUTF( fingerprint );
+                    output.writeInt( files.size() );
+                    for ( Path file : files )
+                    {
+                        output.writeUTF( file.toString() );
+                    }
+                    final MavenXpp3Writer writer = new MavenXpp3Writer();
+                    output.writeInt( projects.size() );
+                    for ( MavenProject project : projects )
+                    {
+                        final ByteArrayOutputStream model = new ByteArrayOutputStream();
+                        writer.write( model, project.getModel() );
+                        output.writeUTF( project.getFile().getAbsolutePath() );
+                        output.writeInt( model.size() );
+                        model.writeTo( output );
+                    }
+                }
+                try
+                {
+                    Files.move( tmp, storeFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+                }
+                catch ( AtomicMoveNotSupportedException e )
+                {
+                    Files.move( tmp, storeFile, StandardCopyOption.REPLACE_EXISTING );
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists( tmp );
+            }
+            LOGGER.debug( "Multi module project model saved to {}, {} projects", storeFile, projects.size() );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Cannot store multi module project model, project will be rediscovered in the next build", e );
+        }
+    }
+
+    /**
+     * Fingerprint of pom and configuration files content and values of properties referenced in them
+     */
+    private String fingerprint( SortedSet<Path> files ) throws IOException
+    {
+        return hashFactory.createAlgorithm().hash( output ->
+        {
+            final Writer writer = new OutputStreamWriter( output, UTF_8 );
+            writer.write( context + '\n' );
+            final Set<String> referenced = new TreeSet<>();
+            for ( Path file : files )
+            {
+                final byte[] content = Files.readAllBytes( file );
+                writer.write( file + "\t" + hashFactory.createAlgorithm().hash( content ) + '\n' );
+                addReferenced( content, referenced );
+            }
+            for ( Path file : configFiles )
+            {
+                if ( Files.isRegularFile( file ) )
+                {
+                    final byte[] content = Files.readAllBytes( file );
+                    writer.write( file + "\t" + hashFactory.createAlgorithm().hash( content ) + '\n' );
+                    addReferenced( content, referenced );
+                }
+                else
+                {
+                    writer.write( file + "\t-\n" );
+                }
+            }
+            for ( String property : referenced )
+            {
+                writer.write( property + '=' + properties.apply( property ) + '\n' );
+            }
+            writer.flush();
+        } );
+    }
+
+    /**
+     * Adds names of properties used in expressions and in property based profile activation
+     */
+    private static void addReferenced( byte[] content, Set<String> referenced )
+    {
+        final String text = new String( content, UTF_8 );
+        final Matcher expression = EXPRESSION.matcher( text );
+        while ( expression.find() )
+        {
+            referenced.add( expression.group( 1 ) );
+        }
+        final Matcher activation = ACTIVATION_PROPERTY.matcher( text );
+        while ( activation.find() )
+        {
+            referenced.add( activation.group( 1 ) );
+        }
+    }
+}
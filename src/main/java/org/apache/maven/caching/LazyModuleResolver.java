@@ -0,0 +1,427 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.apache.maven.caching.checksum.KeyUtils;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves projects of the multi-module tree on demand instead of building the whole tree. Pom files of the tree are
+ * indexed by artifact id from raw poms, a project is built by the project builder only when it is requested and its
+ * raw coordinates don't contradict the requested ones. Coordinates defined by expressions are verified after build.
+ * Modules of profiles with activation are part of the tree only if the profile is active in the built aggregator.
+ */
+class LazyModuleResolver
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( LazyModuleResolver.class );
+
+    private final ProjectBuilder projectBuilder;
+    private final ProjectBuildingRequest buildingRequest;
+    private final Map<String, List<RawModule>> modulesByArtifactId = new HashMap<>();
+    private final Map<Path, RawModule> modulesByPom = new HashMap<>();
+    private final ConcurrentMap<Path, Boolean> included = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Path, CompletableFuture<Optional<MavenProject>>> projects = new ConcurrentHashMap<>();
+
+    LazyModuleResolver( ProjectBuilder projectBuilder, ProjectBuildingRequest buildingRequest, Path rootPom )
+    {
+        this.projectBuilder = projectBuilder;
+        this.buildingRequest = buildingRequest;
+        final long t0 = System.currentTimeMillis();
+        index( rootPom.toAbsolutePath().normalize(), null, null, null );
+        LOGGER.info( "Multi module project indexed for lazy resolution [modules={}, time={} ms]",
+                modulesByArtifactId.values().stream().mapToInt( List::size ).sum(),
+                System.currentTimeMillis() - t0 );
+    }
+
+    /**
+     * @param inclusion how the pom is included by its aggregator, null for the root pom
+     */
+    private void index( Path pom, String aggregatorGroupId, String aggregatorVersion, Inclusion inclusion )
+    {
+        final RawModule visited = modulesByPom.get( pom );
+        if ( visited != null )
+        {
+            visited.inclusions.add( inclusion );
+            return;
+        }
+        if ( !Files.isRegularFile( pom ) )
+        {
+            return;
+        }
+        final Model model;
+        try ( InputStream input = Files.newInputStream( pom ) )
+        {
+            model = new MavenXpp3Reader().read( input, false );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Cannot read {}, module is not indexed", pom, e );
+            return;
+        }
+        final String groupId = model.getGroupId() != null ? model.getGroupId()
+                : model.getParent() != null ? model.getParent().getGroupId() : aggregatorGroupId;
+        final String version = model.getVersion() != null ? model.getVersion()
+                : model.getParent() != null ? model.getParent().getVersion() : aggregatorVersion;
+        final RawModule rawModule = new RawModule( pom, groupId, version, inclusion );
+        modulesByPom.put( pom, rawModule );
+        modulesByArtifactId.computeIfAbsent( model.getArtifactId(), artifactId -> new ArrayList<>( 1 ) )
+                .add( rawModule );
+
+        for ( String module : model.getModules() )
+        {
+            index( modulePom( pom, module ), groupId, version, new Inclusion( rawModule, null ) );
+        }
+        for ( Profile profile : model.getProfiles() )
+        {
+            final String profileId = profile.getId();
+            if ( buildingRequest.getInactiveProfileIds().contains( profileId ) )
+            {
+                continue;
+            }
+            final boolean requested = buildingRequest.getActiveProfileIds().contains( profileId );
+            if ( requested || profile.getActivation() != null )
+            {
+                for ( String module : profile.getModules() )
+                {
+                    index( modulePom( pom, module ), groupId, version,
+                            new Inclusion( rawModule, requested ? null : profileId ) );
+                }
+            }
+        }
+    }
+
+    private static Path modulePom( Path aggregatorPom, String module )
+    {
+        final Path modulePom = aggregatorPom.getParent().resolve( module ).normalize();
+        return Files.isDirectory( modulePom ) ? modulePom.resolve( "pom.xml" ) : modulePom;
+    }
+
+    /**
+     * @return true if the module is part of the tree: included by an included aggregator, directly or by a profile
+     * active in the built aggregator
+     */
+    private boolean isIncluded( RawModule module, Set<Path> path )
+    {
+        final Boolean cached = included.get( module.pom );
+        if ( cached != null )
+        {
+            return cached;
+        }
+        if ( !path.add( module.pom ) )
+        {
+            // cyclic inclusion does not include the module by itself
+            return false;
+        }
+        boolean result = module.isRoot();
+        for ( Iterator<Inclusion> it = module.inclusions.iterator(); !result && it.hasNext(); )
+        {
+            final Inclusion inclusion = it.next();
+            result = isIncluded( inclusion.aggregator, path )
+                    && ( inclusion.profileId == null || isProfileActive( inclusion.aggregator, inclusion.profileId ) );
+        }
+        path.remove( module.pom );
+        if ( path.isEmpty() )
+        {
+            // results computed within a cycle depend on the starting module
+            included.put( module.pom, result );
+        }
+        return result;
+    }
+
+    private boolean isProfileActive( RawModule aggregator, String profileId )
+    {
+        final Optional<MavenProject> project = build( aggregator.pom );
+        return project.isPresent() && project.get().getActiveProfiles().stream()
+                .anyMatch( profile -> profileId.equals( profile.getId() ) );
+    }
+
+    /**
+     * @return true if the module is included without profiles with activation conditions
+     */
+    private static boolean isUnconditional( RawModule module, Set<Path> path )
+    {
+        if ( module.isRoot() )
+        {
+            return true;
+        }
+        if ( !path.add( module.pom ) )
+        {
+            return false;
+        }
+        try
+        {
+            for ( Inclusion inclusion : module.inclusions )
+            {
+                if ( inclusion.profileId == null && isUnconditional( inclusion.aggregator, path ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        finally
+        {
+            path.remove( module.pom );
+        }
+    }
+
+    Optional<MavenProject> resolve( String groupId, String artifactId, String version )
+    {
+        final String key = KeyUtils.getProjectKey( groupId, artifactId, version );
+        for ( RawModule module : candidates( groupId, artifactId, version ) )
+        {
+            if ( !isIncluded( module, new HashSet<>() ) )
+            {
+                continue;
+            }
+            final Optional<MavenProject> project = build( module.pom );
+            if ( project.isPresent() && key.equals( KeyUtils.getProjectKey( project.get() ) ) )
+            {
+                return project;
+            }
+        }
+        return Optional.empty();
+    }
+
+    boolean contains( String groupId, String artifactId, String version )
+    {
+        for ( RawModule module : candidates( groupId, artifactId, version ) )
+        {
+            // modules of profiles with activation are verified by build as eager discovery would include them
+            if ( module.isLiteral() && isUnconditional( module, new HashSet<>() ) )
+            {
+                return true;
+            }
+        }
+        return resolve( groupId, artifactId, version ).isPresent();
+    }
+
+    /**
+     * Builds in parallel the projects and their upstream modules, wave by wave along dependencies
+     */
+    void prefetch( Collection<MavenProject> sessionProjects )
+    {
+        final long t0 = System.currentTimeMillis();
+        final Set<Path> scheduled = new LinkedHashSet<>();
+        List<Path> wave = new ArrayList<>();
+        for ( MavenProject project : sessionProjects )
+        {
+            final Path pom = project.getFile().toPath().toAbsolutePath().normalize();
+            if ( scheduled.add( pom ) )
+            {
+                wave.add( pom );
+            }
+        }
+        final ExecutorService executor = new ForkJoinPool( Runtime.getRuntime().availableProcessors() );
+        try
+        {
+            while ( !wave.isEmpty() )
+            {
+                final List<Future<Optional<MavenProject>>> futures = new ArrayList<>( wave.size() );
+                for ( Path pom : wave )
+                {
+                    futures.add( executor.submit( () -> build( pom ) ) );
+                }
+                final List<Path> next = new ArrayList<>();
+                for ( Future<Optional<MavenProject>> future : futures )
+                {
+                    final Optional<MavenProject> project = future.get();
+                    if ( !project.isPresent() )
+                    {
+                        continue;
+                    }
+                    for ( Dependency dependency : project.get().getDependencies() )
+                    {
+                        for ( RawModule module : candidates( dependency.getGroupId(), dependency.getArtifactId(),
+                                dependency.getVersion() ) )
+                        {
+                            if ( scheduled.add( module.pom ) )
+                            {
+                                next.add( module.pom );
+                            }
+                        }
+                    }
+                }
+                wave = next;
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException e )
+        {
+            LOGGER.warn( "Cannot prefetch multi module projects, they will be built on demand", e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        LOGGER.info( "Multi module projects resolved lazily [projects={}, time={} ms]", scheduled.size(),
+                System.currentTimeMillis() - t0 );
+    }
+
+    private List<RawModule> candidates( String groupId, String artifactId, String version )
+    {
+        final List<RawModule> modules = modulesByArtifactId.get( artifactId );
+        if ( modules == null )
+        {
+            return Collections.emptyList();
+        }
+        final List<RawModule> candidates = new ArrayList<>( modules.size() );
+        for ( RawModule module : modules )
+        {
+            if ( module.matches( groupId, version ) )
+            {
+                candidates.add( module );
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Single build per pom file shared by all requesters
+     */
+    private Optional<MavenProject> build( Path pom )
+    {
+        final CompletableFuture<Optional<MavenProject>> future = new CompletableFuture<>();
+        final CompletableFuture<Optional<MavenProject>> existing = projects.putIfAbsent( pom, future );
+        if ( existing != null )
+        {
+            return existing.join();
+        }
+        try
+        {
+            final MavenProject project = projectBuilder.build( pom.toFile(),
+                    new DefaultProjectBuildingRequest( buildingRequest ) ).getProject();
+            future.complete( Optional.of( project ) );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.error( "Unable to build model of {}", pom, e );
+            future.complete( Optional.empty() );
+        }
+        catch ( Throwable e )
+        {
+            // waiting requesters fail too instead of waiting forever
+            future.completeExceptionally( e );
+            throw e;
+        }
+        return future.join();
+    }
+
+    /**
+     * Coordinates as written in the pom, could contain expressions
+     */
+    private static class RawModule
+    {
+
+        private final Path pom;
+        private final String groupId;
+        private final String version;
+        private final boolean root;
+        /**
+         * Ways the module is included by aggregators
+         */
+        private final List<Inclusion> inclusions = new ArrayList<>( 1 );
+
+        /**
+         * @param inclusion null for the root pom
+         */
+        RawModule( Path pom, String groupId, String version, Inclusion inclusion )
+        {
+            this.pom = pom;
+            this.groupId = groupId;
+            this.version = version;
+            this.root = inclusion == null;
+            if ( inclusion != null )
+            {
+                inclusions.add( inclusion );
+            }
+        }
+
+        boolean isRoot()
+        {
+            return root;
+        }
+
+        boolean isLiteral()
+        {
+            return isLiteral( groupId ) && isLiteral( version );
+        }
+
+        boolean matches( String requestedGroupId, String requestedVersion )
+        {
+            return ( !isLiteral( groupId ) || groupId.equals( requestedGroupId ) )
+                    && ( !isLiteral( version ) || version.equals( requestedVersion ) );
+        }
+
+        private static boolean isLiteral( String value )
+        {
+            return value != null && !value.contains( "${" );
+        }
+    }
+
+    /**
+     * Module declaration of an aggregator, in a profile with activation if profile id is not null
+     */
+    private static class Inclusion
+    {
+
+        private final RawModule aggregator;
+        private final String profileId;
+
+        Inclusion( RawModule aggregator, String profileId )
+        {
+            this.aggregator = aggregator;
+            this.profileId = profileId;
+        }
+    }
+}
@@ -22,11 +22,15 @@
 import java.nio.file.Path;
 import java.util.Optional;
 import javax.annotation.Nonnull;
+import org.apache.maven.caching.checksum.DependencyHashIndex;
+import org.apache.maven.caching.checksum.FileHashIndex;
 import org.apache.maven.caching.xml.Build;
 import org.apache.maven.caching.xml.CacheSource;
 import org.apache.maven.caching.xml.build.Artifact;
+import org.apache.maven.caching.xml.build.ProjectsInputInfo;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
 
 /**
  * Local cache repository.
@@ -45,4 +49,33 @@ public interface LocalCacheRepository extends CacheRepository
 
     @Nonnull
     Optional<Build> findLocalBuild( CacheContext context ) throws IOException;
+
+    /**
+     * Index of input file digests of the project, stored in local cache and shared within session
+     */
+    @Nonnull
+    FileHashIndex getFileHashIndex( MavenSession session, MavenProject project );
+
+    /**
+     * Hashes of resolved dependency files, stored in local cache and shared within session
+     */
+    @Nonnull
+    DependencyHashIndex getDependencyHashIndex( MavenSession session );
+
+    /**
+     * Inputs of the project stored by a previous build with the same inputs fingerprint
+     */
+    @Nonnull
+    Optional<ProjectsInputInfo> findProjectInputs( MavenSession session, MavenProject project, String fingerprint );
+
+    /**
+     * Stores inputs of the project replacing previously stored ones. Failures are logged and ignored
+     */
+    void saveProjectInputs( MavenSession session, MavenProject project, String fingerprint,
+            ProjectsInputInfo inputs );
+
+    /**
+     * Persists file hash indexes modified in the session
+     */
+    void saveFileHashIndexes();
 }
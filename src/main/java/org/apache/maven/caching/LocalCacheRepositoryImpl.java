@@ -20,6 +20,8 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -45,11 +47,14 @@
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.maven.SessionScoped;
+import org.apache.maven.caching.checksum.DependencyHashIndex;
+import org.apache.maven.caching.checksum.FileHashIndex;
 import org.apache.maven.caching.xml.Build;
 import org.apache.maven.caching.xml.CacheConfig;
 import org.apache.maven.caching.xml.CacheSource;
 import org.apache.maven.caching.xml.XmlService;
 import org.apache.maven.caching.xml.build.Artifact;
+import org.apache.maven.caching.xml.build.ProjectsInputInfo;
 import org.apache.maven.caching.xml.build.Scm;
 import org.apache.maven.caching.xml.report.CacheReport;
 import org.apache.maven.execution.MavenSession;
@@ -79,6 +84,10 @@ public class LocalCacheRepositoryImpl implements LocalCacheRepository
 
     private static final String BUILDINFO_XML = "buildinfo.xml";
     private static final String LOOKUPINFO_XML = "lookupinfo.xml";
+    private static final String FILE_HASH_INDEX = "filehashes.idx";
+    private static final String DEPENDENCY_HASH_INDEX = "dependencyhashes.idx";
+    private static final String PROJECT_INPUTS_PREFIX = "inputs-";
+    private static final String PROJECT_INPUTS_SUFFIX = ".xml";
     private static final long ONE_HOUR_MILLIS = HOURS.toMillis( 1 );
     private static final long ONE_MINUTE_MILLIS = MINUTES.toMillis( 1 );
     private static final long ONE_DAY_MILLIS = DAYS.toMillis( 1 );
@@ -90,6 +99,8 @@ public class LocalCacheRepositoryImpl implements LocalCacheRepository
     private final XmlService xmlService;
     private final CacheConfig cacheConfig;
     private final Map<Pair<MavenSession, Dependency>, Optional<Build>> bestBuildCache = new ConcurrentHashMap<>();
+    private final Map<Path, FileHashIndex> fileHashIndexes = new ConcurrentHashMap<>();
+    private DependencyHashIndex dependencyHashIndex;
 
     @Inject
     public LocalCacheRepositoryImpl(
@@ -426,6 +437,137 @@ public void saveArtifactFile( CacheResult cacheResult, org.apache.maven.artifact
         }
     }
 
+    @Nonnull
+    @Override
+    public FileHashIndex getFileHashIndex( MavenSession session, MavenProject project )
+    {
+        try
+        {
+            final Path indexPath = artifactCacheDir( session, project.getGroupId(), project.getArtifactId() )
+                    .resolve( FILE_HASH_INDEX );
+            return fileHashIndexes.computeIfAbsent( indexPath,
+                    path -> FileHashIndex.load( path, cacheConfig.getHashFactory().getAlgorithm() ) );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( "Cannot create cache directory for " + project.getArtifactId(), e );
+        }
+    }
+
+    @Nonnull
+    @Override
+    public synchronized DependencyHashIndex getDependencyHashIndex( MavenSession session )
+    {
+        if ( dependencyHashIndex == null )
+        {
+            final Path indexPath = Paths.get( session.getLocalRepository().getBasedir(), "..", "cache",
+                    CACHE_IMPLEMENTATION_VERSION, DEPENDENCY_HASH_INDEX ).normalize();
+            final FileHashIndex index = fileHashIndexes.computeIfAbsent( indexPath,
+                    path -> FileHashIndex.load( path, cacheConfig.getHashFactory().getAlgorithm() ) );
+            dependencyHashIndex = new DependencyHashIndex( index );
+        }
+        return dependencyHashIndex;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<ProjectsInputInfo> findProjectInputs( MavenSession session, MavenProject project,
+            String fingerprint )
+    {
+        try
+        {
+            final Path path = artifactCacheDir( session, project.getGroupId(), project.getArtifactId() )
+                    .resolve( PROJECT_INPUTS_PREFIX + fingerprint + PROJECT_INPUTS_SUFFIX );
+            if ( !Files.exists( path ) )
+            {
+                return Optional.empty();
+            }
+            final org.apache.maven.caching.xml.build.Build dto;
+            try ( InputStream inputStream = Files.newInputStream( path ) )
+            {
+                dto = xmlService.loadBuild( inputStream );
+            }
+            if ( !CACHE_IMPLEMENTATION_VERSION.equals( dto.getCacheImplementationVersion() ) )
+            {
+                return Optional.empty();
+            }
+            return Optional.ofNullable( dto.getProjectsInputInfo() );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Cannot read stored inputs of {}, checksum will be recalculated",
+                    project.getArtifactId(), e );
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void saveProjectInputs( MavenSession session, MavenProject project, String fingerprint,
+            ProjectsInputInfo inputs )
+    {
+        try
+        {
+            final Path dir = artifactCacheDir( session, project.getGroupId(), project.getArtifactId() );
+            final String fileName = PROJECT_INPUTS_PREFIX + fingerprint + PROJECT_INPUTS_SUFFIX;
+            final org.apache.maven.caching.xml.build.Build dto = new org.apache.maven.caching.xml.build.Build();
+            dto.setCacheImplementationVersion( CACHE_IMPLEMENTATION_VERSION );
+            dto.setProjectsInputInfo( inputs );
+
+            final Path temp = Files.createTempFile( dir, PROJECT_INPUTS_PREFIX, ".tmp" );
+            try
+            {
+                Files.write( temp, xmlService.toBytes( dto ), TRUNCATE_EXISTING );
+                try
+                {
+                    Files.move( temp, dir.resolve( fileName ), StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING );
+                }
+                catch ( AtomicMoveNotSupportedException e )
+                {
+                    Files.move( temp, dir.resolve( fileName ), StandardCopyOption.REPLACE_EXISTING );
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists( temp );
+            }
+
+            // only inputs of the latest state are kept
+            try ( DirectoryStream<Path> paths = Files.newDirectoryStream( dir,
+                    PROJECT_INPUTS_PREFIX + "*" + PROJECT_INPUTS_SUFFIX ) )
+            {
+                for ( Path path : paths )
+                {
+                    if ( !path.getFileName().toString().equals( fileName ) )
+                    {
+                        Files.deleteIfExists( path );
+                    }
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Cannot store inputs of {}, checksum will be recalculated in the next build",
+                    project.getArtifactId(), e );
+        }
+    }
+
+    @Override
+    public void saveFileHashIndexes()
+    {
+        for ( FileHashIndex index : fileHashIndexes.values() )
+        {
+            try
+            {
+                index.save();
+            }
+            catch ( IOException e )
+            {
+                LOGGER.warn( "Cannot save file hash index, files will be rehashed in the next build", e );
+            }
+        }
+    }
+
     private Path buildCacheDir( CacheContext context ) throws IOException
     {
         final MavenProject project = context.getProject();
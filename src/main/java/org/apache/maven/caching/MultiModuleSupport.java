@@ -24,6 +24,11 @@
 public interface MultiModuleSupport
 {
 
+    /**
+     * @return project of the multi-module build. Projects outside of the session may be restored from the persisted
+     *         discovery: such projects have effective model only (no parent project, collected projects or resolved
+     *         artifacts) and are suitable for checksum calculation only
+     */
     Optional<MavenProject> tryToResolveProject( String groupId, String artifactId, String version );
 
     boolean isPartOfMultiModule( String groupId, String artifactId, String version );
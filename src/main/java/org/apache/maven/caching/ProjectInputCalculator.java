@@ -18,6 +18,7 @@
  */
 package org.apache.maven.caching;
 
+import java.util.List;
 import org.apache.maven.caching.xml.build.ProjectsInputInfo;
 import org.apache.maven.project.MavenProject;
 
@@ -29,4 +30,10 @@
 
     ProjectsInputInfo calculateInput( MavenProject project );
 
+    /**
+     * Calculates inputs of the projects and their upstream projects ahead of the build. Failures are not propagated,
+     * inputs of failed projects and their dependents are calculated on demand
+     */
+    void precalculateInputs( List<MavenProject> projects );
+
 }
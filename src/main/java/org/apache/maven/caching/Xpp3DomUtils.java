@@ -18,23 +18,38 @@
  */
 package org.apache.maven.caching;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
 /**
  * This utility class is used to work around the classloading problem described
  * in https://issues.apache.org/jira/browse/MNG-7160.
  * The simple workaround described in MNG-7160 is not possible because this
  * extension uses both the XPP3 classes and other utility classes. We thus rely on
  * reflection for all access to plugin configuration.
+ * Method handles are looked up once per node class, so traversal of configuration trees doesn't pay for reflective
+ * lookup on each node.
  */
 public class Xpp3DomUtils
 {
 
+    private static final ClassValue<Accessors> ACCESSORS = new ClassValue<Accessors>()
+    {
+        @Override
+        protected Accessors computeValue( Class<?> type )
+        {
+            return new Accessors( type );
+        }
+    };
+
     public static Object[] getChildren( Object node )
     {
         try
         {
-            return ( Object[] ) node.getClass().getMethod( "getChildren" ).invoke( node );
+            return ( Object[] ) ACCESSORS.get( node.getClass() ).getChildren.invokeExact( node );
         }
-        catch ( Exception e )
+        catch ( Throwable e )
         {
             throw new RuntimeException( "Error invoking Xpp3Dom.getChildren", e );
         }
@@ -44,9 +59,9 @@ public static String getName( Object node )
     {
         try
         {
-            return ( String ) node.getClass().getMethod( "getName" ).invoke( node );
+            return ( String ) ACCESSORS.get( node.getClass() ).getName.invokeExact( node );
         }
-        catch ( Exception e )
+        catch ( Throwable e )
         {
             throw new RuntimeException( "Error invoking Xpp3Dom.getName", e );
         }
@@ -56,9 +71,9 @@ public static String getValue( Object node )
     {
         try
         {
-            return ( String ) node.getClass().getMethod( "getValue" ).invoke( node );
+            return ( String ) ACCESSORS.get( node.getClass() ).getValue.invokeExact( node );
         }
-        catch ( Exception e )
+        catch ( Throwable e )
         {
             throw new RuntimeException( "Error invoking Xpp3Dom.getValue", e );
         }
@@ -68,9 +83,9 @@ public static void removeChild( Object node, int index )
     {
         try
         {
-            node.getClass().getMethod( "removeChild", int.class ).invoke( node, index );
+            ACCESSORS.get( node.getClass() ).removeChild.invokeExact( node, index );
         }
-        catch ( Exception e )
+        catch ( Throwable e )
         {
             throw new RuntimeException( "Error invoking Xpp3Dom.removeChild", e );
         }
@@ -80,11 +95,53 @@ public static String getAttribute( Object node, String attribute )
     {
         try
         {
-            return ( String ) node.getClass().getMethod( "getAttribute", String.class ).invoke( node, attribute );
+            return ( String ) ACCESSORS.get( node.getClass() ).getAttribute.invokeExact( node, attribute );
         }
-        catch ( Exception e )
+        catch ( Throwable e )
         {
             throw new RuntimeException( "Error invoking Xpp3Dom.getAttribute", e );
         }
     }
+
+    /**
+     * Handles of a node class adapted to {@code Object} receiver for exact invocation. A missing method fails on use,
+     * the same as with lookup on each call
+     */
+    private static class Accessors
+    {
+
+        private final MethodHandle getChildren;
+        private final MethodHandle getName;
+        private final MethodHandle getValue;
+        private final MethodHandle removeChild;
+        private final MethodHandle getAttribute;
+
+        Accessors( Class<?> type )
+        {
+            getChildren = find( type, "getChildren", Object[].class );
+            getName = find( type, "getName", String.class );
+            getValue = find( type, "getValue", String.class );
+            removeChild = find( type, "removeChild", void.class, int.class );
+            getAttribute = find( type, "getAttribute", String.class, String.class );
+        }
+
+        private static MethodHandle find( Class<?> type, String name, Class<?> returnType, Class<?>... parameters )
+        {
+            final MethodType adapted = MethodType.methodType( returnType, Object.class, parameters );
+            try
+            {
+                final MethodHandle handle = MethodHandles.publicLookup()
+                        .unreflect( type.getMethod( name, parameters ) );
+                return handle.asType( adapted );
+            }
+            catch ( ReflectiveOperationException | RuntimeException e )
+            {
+                final MethodHandle thrower = MethodHandles.throwException( returnType == void.class
+                        ? Void.class : returnType, IllegalStateException.class );
+                final MethodHandle failure = MethodHandles.insertArguments( thrower, 0,
+                        new IllegalStateException( "No method " + name + " in " + type.getName(), e ) );
+                return MethodHandles.dropArguments( failure, 0, adapted.parameterList() ).asType( adapted );
+            }
+        }
+    }
 }
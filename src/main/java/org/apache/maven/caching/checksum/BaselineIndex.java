@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.maven.caching.xml.build.DigestItem;
+import org.apache.maven.caching.xml.build.ProjectsInputInfo;
+
+/**
+ * Digest items of a baseline build indexed by type and trimmed value. The first of duplicate items wins, the same as
+ * with linear search over the items
+ */
+class BaselineIndex
+{
+
+    private final Map<String, Map<String, DigestItem>> itemsByType = new HashMap<>();
+    private final Map<String, DigestItem> firstOfType = new HashMap<>();
+
+    BaselineIndex( ProjectsInputInfo baseline )
+    {
+        for ( DigestItem item : baseline.getItems() )
+        {
+            firstOfType.putIfAbsent( item.getType(), item );
+            if ( item.getValue() != null )
+            {
+                itemsByType.computeIfAbsent( item.getType(), type -> new HashMap<>() )
+                        .putIfAbsent( item.getValue().trim(), item );
+            }
+        }
+    }
+
+    /**
+     * @return baseline item of the type with trimmed value equal to the value or null
+     */
+    DigestItem find( String type, String value )
+    {
+        final Map<String, DigestItem> items = itemsByType.get( type );
+        return items != null ? items.get( value ) : null;
+    }
+
+    /**
+     * @return the first baseline item of the type or null
+     */
+    DigestItem findFirst( String type )
+    {
+        return firstOfType.get( type );
+    }
+}
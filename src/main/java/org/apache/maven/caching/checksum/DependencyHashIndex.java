@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.xml.build.DigestItem;
+
+/**
+ * Hashes of resolved dependency files (snapshot jars outside of the reactor) shared by all modules of the session and
+ * persisted in {@link FileHashIndex} keyed by absolute file path. A file is hashed once per change of its size,
+ * modification time or file key, concurrent requests for the same file wait for a single calculation
+ */
+public class DependencyHashIndex
+{
+
+    private final FileHashIndex index;
+    private final ConcurrentMap<String, Memo> memos = new ConcurrentHashMap<>();
+
+    public DependencyHashIndex( FileHashIndex index )
+    {
+        this.index = index;
+    }
+
+    public String hash( HashAlgorithm algorithm, Path file ) throws IOException
+    {
+        final String key = file.toAbsolutePath().normalize().toString();
+        final Memo memo = memos.computeIfAbsent( key, k -> new Memo() );
+        synchronized ( memo )
+        {
+            final BasicFileAttributes attributes = Files.readAttributes( file, BasicFileAttributes.class );
+            if ( memo.matches( attributes ) )
+            {
+                return memo.hash;
+            }
+            final DigestItem indexed = index.find( key, attributes );
+            final String hash;
+            if ( indexed != null )
+            {
+                hash = indexed.getHash();
+            }
+            else
+            {
+                hash = algorithm.hash( file );
+                final DigestItem item = new DigestItem();
+                item.setHash( hash );
+                index.put( key, attributes, item );
+            }
+            memo.update( attributes, hash );
+            return hash;
+        }
+    }
+
+    /**
+     * Hash of the file calculated in the session. Unlike persisted entries recently modified files are memoized too:
+     * dependency files are not expected to change within a session
+     */
+    private static class Memo
+    {
+
+        private long size;
+        private FileTime lastModified;
+        private Object fileKey;
+        private String hash;
+
+        boolean matches( BasicFileAttributes attributes )
+        {
+            return hash != null
+                    && size == attributes.size()
+                    && lastModified.equals( attributes.lastModifiedTime() )
+                    && Objects.equals( fileKey, attributes.fileKey() );
+        }
+
+        void update( BasicFileAttributes attributes, String hash )
+        {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime();
+            this.fileKey = attributes.fileKey();
+            this.hash = hash;
+        }
+    }
+}
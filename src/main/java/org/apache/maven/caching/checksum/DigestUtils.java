@@ -19,13 +19,21 @@
 package org.apache.maven.caching.checksum;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.caching.hash.HashAlgorithm;
 import org.apache.maven.caching.hash.HashChecksum;
 import org.apache.maven.caching.xml.build.DigestItem;
 import org.mozilla.universalchardet.UniversalDetector;
@@ -49,41 +57,146 @@
     private static final ThreadLocal<UniversalDetector> ENCODING_DETECTOR = ThreadLocal
             .withInitial( () -> new UniversalDetector( null ) );
 
+    /**
+     * Bytes read to detect charset and line separator
+     */
+    private static final int PREFIX_SIZE = 16 * 1024;
+
+    /**
+     * Content types of common file extensions, replaces costly {@link Files#probeContentType(Path)}
+     */
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static
+    {
+        contentType( "text/plain", "txt", "text", "log", "md", "adoc", "apt", "csv", "mf", "list" );
+        contentType( "text/x-java", "java" );
+        contentType( "text/x-groovy", "groovy", "gradle" );
+        contentType( "text/x-kotlin", "kt", "kts" );
+        contentType( "text/x-scala", "scala" );
+        contentType( "text/x-c", "c", "h" );
+        contentType( "text/x-c++", "cpp", "cc", "hpp" );
+        contentType( "text/x-python", "py" );
+        contentType( "text/x-java-properties", "properties" );
+        contentType( "text/html", "html", "htm" );
+        contentType( "text/css", "css" );
+        contentType( "text/x-sql", "sql" );
+        contentType( "text/x-vm", "vm" );
+        contentType( "text/x-ftl", "ftl" );
+        contentType( "text/yaml", "yaml", "yml" );
+        contentType( "application/xml", "xml", "xsd", "xsl", "xslt", "wsdl", "mdo", "pom", "fxml" );
+        contentType( "application/json", "json" );
+        contentType( "application/javascript", "js", "mjs" );
+        contentType( "application/x-sh", "sh" );
+        contentType( "application/rtf", "rtf" );
+        contentType( "application/java-archive", "jar", "war", "ear" );
+        contentType( "application/zip", "zip" );
+        contentType( "application/gzip", "gz", "tgz" );
+        contentType( "application/x-bzip2", "bz2" );
+        contentType( "application/x-tar", "tar" );
+        contentType( "application/pdf", "pdf" );
+        contentType( "application/octet-stream", "class", "bin", "so", "dll", "exe", "dylib" );
+        contentType( "image/png", "png" );
+        contentType( "image/jpeg", "jpg", "jpeg" );
+        contentType( "image/gif", "gif" );
+        contentType( "image/x-icon", "ico" );
+        contentType( "image/svg+xml", "svg" );
+        contentType( "font/ttf", "ttf" );
+        contentType( "font/woff", "woff" );
+        contentType( "font/woff2", "woff2" );
+    }
+
+    private static void contentType( String contentType, String... extensions )
+    {
+        for ( String extension : extensions )
+        {
+            CONTENT_TYPES.put( extension, contentType );
+        }
+    }
+
     public static DigestItem pom( HashChecksum checksum, String effectivePom )
     {
         return item( "pom", effectivePom, checksum.update( effectivePom.getBytes( UTF_8 ) ) );
     }
 
-    public static DigestItem file( HashChecksum checksum, Path basedir, Path file ) throws IOException
+    /**
+     * @param hash         effective pom hash calculated by caller
+     * @param effectivePom effective pom text or null if text is not saved in build metadata
+     */
+    public static DigestItem pom( HashChecksum checksum, String hash, String effectivePom )
+    {
+        return item( "pom", effectivePom, checksum.update( hash ) );
+    }
+
+    /**
+     * Directory digest of {@link MerkleTree}, checksum must be updated by caller
+     */
+    public static DigestItem directory( String path, String hash )
+    {
+        return item( "directory", path, hash );
+    }
+
+    /**
+     * Calculates file digest, checksum must be updated by caller. Algorithm instance must not be shared between threads.
+     * Content details are not populated, see {@link #populateContentDetails(Path, DigestItem)}
+     */
+    public static DigestItem file( HashAlgorithm algorithm, Path basedir, Path file ) throws IOException
+    {
+        return item( "file", normalize( basedir, file ), algorithm.hash( file ) );
+    }
+
+    /**
+     * Reuses digest from the index if file stat data is not changed, otherwise reads the file and indexes result
+     */
+    public static DigestItem file( HashAlgorithm algorithm, Path basedir, Path file, FileHashIndex index )
+            throws IOException
     {
-        byte[] content = Files.readAllBytes( file );
+        BasicFileAttributes attributes = Files.readAttributes( file, BasicFileAttributes.class );
         String normalized = normalize( basedir, file );
-        DigestItem item = item( "file", normalized, checksum.update( content ) );
-        try
+        DigestItem indexed = index.find( normalized, attributes );
+        if ( indexed != null )
         {
-            populateContentDetails( file, content, item );
-        }
-        catch ( IOException ignore )
-        {
-            LOGGER.debug( "Failed to compute digest for file {}", normalized, ignore );
+            return indexed;
         }
+        DigestItem item = file( algorithm, basedir, file );
+        index.put( normalized, attributes, item );
         return item;
     }
 
-    private static void populateContentDetails( Path file, byte[] content, DigestItem item ) throws IOException
+    /**
+     * Digest of the file as git blob, recorded blob id is used if the file is clean in git index
+     */
+    public static DigestItem file( Path basedir, Path file, GitIndex index ) throws IOException
     {
-        String contentType = Files.probeContentType( file );
+        BasicFileAttributes attributes = Files.readAttributes( file, BasicFileAttributes.class );
+        return item( "file", normalize( basedir, file ), index.blobId( file, attributes ) );
+    }
+
+    /**
+     * Populates content type, charset and line separator of the file. Only a prefix of the file is read, so details
+     * are best effort and intended for diagnostics only
+     */
+    public static void populateContentDetails( Path file, DigestItem item )
+    {
+        final String contentType = CONTENT_TYPES.get( FilenameUtils.getExtension( file.getFileName().toString() )
+                .toLowerCase( Locale.ROOT ) );
         if ( contentType != null )
         {
             item.setContent( contentType );
         }
         final boolean binary = isBinary( contentType );
         item.setIsText( isText( contentType ) ? "yes" : binary ? "no" : "unknown" );
-        if ( !binary )
-        { // probing application/ files as well though might be binary
+        if ( binary )
+        {
+            return;
+        }
+        // probing application/ files as well though might be binary
+        try
+        {
+            final byte[] prefix = readPrefix( file );
             UniversalDetector detector = ENCODING_DETECTOR.get();
             detector.reset();
-            detector.handleData( content, 0, Math.min( content.length, 16 * 1024 ) );
+            detector.handleData( prefix, 0, prefix.length );
             detector.dataEnd();
             String detectedCharset = detector.getDetectedCharset();
             Charset charset = UTF_8;
@@ -92,10 +205,24 @@ private static void populateContentDetails( Path file, byte[] content, DigestIte
                 item.setCharset( detectedCharset );
                 charset = Charset.forName( detectedCharset );
             }
-            CharBuffer charBuffer = charset.decode( ByteBuffer.wrap( content ) );
+            CharBuffer charBuffer = charset.decode( ByteBuffer.wrap( prefix ) );
             String lineSeparator = detectLineSeparator( charBuffer );
             item.setEol( StringUtils.defaultString( lineSeparator, "unknown" ) );
         }
+        catch ( IOException | IllegalArgumentException e )
+        {
+            LOGGER.debug( "Failed to detect content details of file {}", item.getValue(), e );
+        }
+    }
+
+    private static byte[] readPrefix( Path file ) throws IOException
+    {
+        try ( InputStream is = Files.newInputStream( file ) )
+        {
+            final byte[] buffer = new byte[PREFIX_SIZE];
+            final int read = IOUtils.read( is, buffer );
+            return read < PREFIX_SIZE ? Arrays.copyOf( buffer, read ) : buffer;
+        }
     }
 
     // TODO add support for .gitattributes to statically configure file type before falling back to probe based content checks
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.caching.xml.build.DigestItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Persistent index of input file digests keyed by file stat data (size, modification time and file key). Allows to
+ * reuse previously calculated digest if file is not modified since the last build.
+ * <p>
+ * Index is loaded once per module and session and rewritten atomically by {@link #save()}. Only entries requested in
+ * the current session are retained, so deleted files do not accumulate in the index.
+ */
+public class FileHashIndex
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( FileHashIndex.class );
+
+    private static final String SEPARATOR = "\t";
+    private static final String NO_VALUE = "";
+    private static final int FIELDS_COUNT = 9;
+
+    /**
+     * Files modified within this interval are not indexed - subsequent modification could keep the same stat data
+     */
+    private static final long RACY_INTERVAL_MILLIS = 2000;
+
+    private final Path indexFile;
+    private final String algorithm;
+    private final Map<String, Entry> loaded;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    FileHashIndex( Path indexFile, String algorithm, Map<String, Entry> loaded )
+    {
+        this.indexFile = indexFile;
+        this.algorithm = algorithm;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Loads index from file. Missing, incompatible or corrupted index results in empty index
+     */
+    public static FileHashIndex load( Path indexFile, String algorithm )
+    {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if ( Files.exists( indexFile ) )
+        {
+            try ( BufferedReader reader = Files.newBufferedReader( indexFile, UTF_8 ) )
+            {
+                if ( algorithm.equals( reader.readLine() ) )
+                {
+                    String line;
+                    while ( ( line = reader.readLine() ) != null )
+                    {
+                        final String[] fields = StringUtils.splitPreserveAllTokens( line, SEPARATOR );
+                        if ( fields.length == FIELDS_COUNT )
+                        {
+                            entries.put( fields[0], Entry.parse( fields ) );
+                        }
+                    }
+                }
+                else
+                {
+                    LOGGER.debug( "File hash index {} is created with another algorithm, ignoring", indexFile );
+                }
+            }
+            catch ( Exception e )
+            {
+                LOGGER.warn( "Cannot read file hash index {}, files will be rehashed", indexFile, e );
+                entries.clear();
+            }
+        }
+        return new FileHashIndex( indexFile, algorithm, entries );
+    }
+
+    /**
+     * @return copy of indexed digest if file stat data matches indexed one, null otherwise
+     */
+    public DigestItem find( String normalizedPath, BasicFileAttributes attributes )
+    {
+        Entry entry = current.get( normalizedPath );
+        if ( entry == null )
+        {
+            entry = loaded.get( normalizedPath );
+        }
+        if ( entry == null || !entry.matches( attributes ) )
+        {
+            return null;
+        }
+        current.put( normalizedPath, entry );
+        return entry.toDigestItem( normalizedPath );
+    }
+
+    /**
+     * Retains all loaded entries when digests are reused without looking up files, e.g. from stored project inputs
+     */
+    public void retainLoaded()
+    {
+        for ( Map.Entry<String, Entry> entry : loaded.entrySet() )
+        {
+            current.putIfAbsent( entry.getKey(), entry.getValue() );
+        }
+    }
+
+    public void put( String normalizedPath, BasicFileAttributes attributes, DigestItem item )
+    {
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        if ( System.currentTimeMillis() - lastModified < RACY_INTERVAL_MILLIS
+                || StringUtils.containsAny( normalizedPath, SEPARATOR, "\n", "\r" ) )
+        {
+            return;
+        }
+        current.put( normalizedPath, new Entry( attributes.size(), lastModified, fileKey( attributes ), item ) );
+        modified = true;
+    }
+
+    /**
+     * Atomically rewrites index file if content is changed
+     */
+    public void save() throws IOException
+    {
+        if ( !modified && current.keySet().equals( loaded.keySet() ) )
+        {
+            return;
+        }
+
+        Files.createDirectories( indexFile.getParent() );
+        final Path tmp = Files.createTempFile( indexFile.getParent(), indexFile.getFileName().toString(), ".tmp" );
+        try
+        {
+            try ( BufferedWriter writer = Files.newBufferedWriter( tmp, UTF_8 ) )
+            {
+                writer.write( algorithm );
+                writer.newLine();
+                for ( Map.Entry<String, Entry> entry : current.entrySet() )
+                {
+                    writer.write( entry.getKey() );
+                    writer.write( SEPARATOR );
+                    writer.write( entry.getValue().format() );
+                    writer.newLine();
+                }
+            }
+            try
+            {
+                Files.move( tmp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+            }
+            catch ( AtomicMoveNotSupportedException e )
+            {
+                Files.move( tmp, indexFile, StandardCopyOption.REPLACE_EXISTING );
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists( tmp );
+        }
+        LOGGER.debug( "File hash index saved to {}, {} entries", indexFile, current.size() );
+    }
+
+    private static String fileKey( BasicFileAttributes attributes )
+    {
+        final Object fileKey = attributes.fileKey();
+        return fileKey != null ? fileKey.toString() : NO_VALUE;
+    }
+
+    /**
+     * Indexed file stat data and digest details
+     */
+    static class Entry
+    {
+
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+        private final String hash;
+        private final String content;
+        private final String isText;
+        private final String charset;
+        private final String eol;
+
+        Entry( long size, long lastModified, String fileKey, DigestItem item )
+        {
+            this( size, lastModified, fileKey, item.getHash(), item.getContent(), item.getIsText(),
+                    item.getCharset(), item.getEol() );
+        }
+
+        @SuppressWarnings( "checkstyle:parameternumber" )
+        private Entry( long size, long lastModified, String fileKey, String hash, String content, String isText,
+                String charset, String eol )
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.hash = hash;
+            this.content = content;
+            this.isText = isText;
+            this.charset = charset;
+            this.eol = eol;
+        }
+
+        static Entry parse( String[] fields )
+        {
+            return new Entry( Long.parseLong( fields[1] ), Long.parseLong( fields[2] ), fields[3], fields[4],
+                    StringUtils.defaultIfEmpty( fields[5], null ),
+                    StringUtils.defaultIfEmpty( fields[6], null ),
+                    StringUtils.defaultIfEmpty( fields[7], null ),
+                    StringUtils.defaultIfEmpty( fields[8], null ) );
+        }
+
+        String format()
+        {
+            return StringUtils.join( new Object[] { size, lastModified, fileKey, hash,
+                    StringUtils.defaultString( content ),
+                    StringUtils.defaultString( isText ),
+                    StringUtils.defaultString( charset ),
+                    StringUtils.defaultString( eol ) }, SEPARATOR );
+        }
+
+        boolean matches( BasicFileAttributes attributes )
+        {
+            return size == attributes.size()
+                    && lastModified == attributes.lastModifiedTime().toMillis()
+                    && Objects.equals( fileKey, FileHashIndex.fileKey( attributes ) );
+        }
+
+        DigestItem toDigestItem( String normalizedPath )
+        {
+            final DigestItem item = new DigestItem();
+            item.setType( "file" );
+            item.setValue( normalizedPath );
+            item.setHash( hash );
+            item.setContent( content );
+            item.setIsText( isText );
+            item.setCharset( charset );
+            item.setEol( eol );
+            return item;
+        }
+    }
+}
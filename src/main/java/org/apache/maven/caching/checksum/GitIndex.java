@@ -0,0 +1,466 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.caching.hash.HexUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.equalsAnyIgnoreCase;
+
+/**
+ * Tracked files of git work tree read from {@code .git/index} (versions 2 to 4, SHA-1 object format). File is
+ * considered clean if its size and modification time match stat data recorded in the index, recorded blob id is the
+ * content hash of a clean file. Other files are hashed as git blobs, so hashes do not depend on the index state.
+ * <p>
+ * Recorded blobs are equal to file content only if git does not convert content (end of line conversion, filters
+ * like Git LFS, etc.), work trees with conversion configured are not supported.
+ */
+public class GitIndex
+{
+
+    private static final Logger LOGGER = LoggerFactory.getLogger( GitIndex.class );
+
+    private static final int SIGNATURE = 0x44495243; // "DIRC"
+    private static final int OBJECT_ID_LENGTH = 20;
+
+    private static final int FLAG_ASSUME_VALID = 0x8000;
+    private static final int FLAG_EXTENDED = 0x4000;
+    private static final int EXTENDED_SKIP_WORKTREE = 0x4000;
+    private static final int EXTENDED_INTENT_TO_ADD = 0x2000;
+    private static final int MODE_TYPE_MASK = 0170000;
+    private static final int MODE_REGULAR_FILE = 0100000;
+
+    private static final String ATTRIBUTES_FILE = ".gitattributes";
+    /**
+     * Attributes which make git convert content between work tree and repository
+     */
+    private static final Set<String> CONVERSION_ATTRIBUTES = new HashSet<>( Arrays.asList( "text", "eol", "crlf",
+            "filter", "ident", "working-tree-encoding" ) );
+
+    private final Path workTree;
+    private final Map<String, Entry> entries;
+
+    GitIndex( Path workTree, Map<String, Entry> entries )
+    {
+        this.workTree = workTree.toAbsolutePath().normalize();
+        this.entries = entries;
+    }
+
+    /**
+     * Loads index of the work tree
+     *
+     * @return index or null if the work tree is not supported or index can't be read, files should be hashed by
+     * content then
+     */
+    public static GitIndex load( Path workTree )
+    {
+        return load( workTree, userConfigFiles() );
+    }
+
+    /**
+     * @param userConfigs system and global git configuration files in order of precedence
+     */
+    static GitIndex load( Path workTree, List<Path> userConfigs )
+    {
+        final Path gitDir = workTree.resolve( ".git" );
+        if ( !Files.isDirectory( gitDir ) )
+        {
+            if ( Files.exists( gitDir ) )
+            {
+                LOGGER.warn( "Git index of linked work trees and submodules is not supported, input files of {} will "
+                        + "be hashed by content", workTree );
+            }
+            else if ( hasGitDir( workTree.toAbsolutePath().getParent() ) )
+            {
+                LOGGER.warn( "Git index is supported only in the root of git work tree, input files of {} will be "
+                        + "hashed by content", workTree );
+            }
+            else
+            {
+                LOGGER.warn( "{} is not a git work tree, input files will be hashed by content", workTree );
+            }
+            return null;
+        }
+        final Path indexFile = gitDir.resolve( "index" );
+        if ( !Files.isRegularFile( indexFile ) )
+        {
+            LOGGER.warn( "Git index is not found in {}, input files will be hashed by content", workTree );
+            return null;
+        }
+        try
+        {
+            if ( isSha256Repository( gitDir ) )
+            {
+                LOGGER.warn( "Git repository {} uses unsupported object format, input files will be hashed by content",
+                        workTree );
+                return null;
+            }
+            final long t0 = System.currentTimeMillis();
+            final FileTime indexModified = Files.getLastModifiedTime( indexFile );
+            final Map<String, Entry> entries = parse( ByteBuffer.wrap( Files.readAllBytes( indexFile ) ),
+                    indexModified );
+            final String conversion = findConversion( workTree, gitDir, userConfigs, entries.keySet() );
+            if ( conversion != null )
+            {
+                LOGGER.warn( "Git converts content of {} ({}), recorded blobs differ from files, input files will be "
+                        + "hashed by content", workTree, conversion );
+                return null;
+            }
+            LOGGER.info( "Git index loaded in {} ms, tracked files: {}", System.currentTimeMillis() - t0,
+                    entries.size() );
+            return new GitIndex( workTree, entries );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            LOGGER.warn( "Cannot read git index {}, input files will be hashed by content", indexFile, e );
+            return null;
+        }
+    }
+
+    private static boolean hasGitDir( Path dir )
+    {
+        for ( Path current = dir; current != null; current = current.getParent() )
+        {
+            if ( Files.exists( current.resolve( ".git" ) ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Path> userConfigFiles()
+    {
+        final List<Path> configs = new ArrayList<>();
+        configs.add( Paths.get( "/etc/gitconfig" ) );
+        final String home = System.getProperty( "user.home" );
+        final String xdgConfigHome = System.getenv( "XDG_CONFIG_HOME" );
+        if ( xdgConfigHome != null && !xdgConfigHome.isEmpty() )
+        {
+            configs.add( Paths.get( xdgConfigHome, "git", "config" ) );
+        }
+        else if ( home != null )
+        {
+            configs.add( Paths.get( home, ".config", "git", "config" ) );
+        }
+        if ( home != null )
+        {
+            configs.add( Paths.get( home, ".gitconfig" ) );
+        }
+        return configs;
+    }
+
+    /**
+     * @return description of content conversion configured for the work tree or null
+     */
+    static String findConversion( Path workTree, Path gitDir, List<Path> userConfigs, Set<String> trackedFiles )
+            throws IOException
+    {
+        // Git for Windows enables it in system configuration which location varies
+        String autocrlf = SystemUtils.IS_OS_WINDOWS ? "true" : "false";
+        final List<Path> configs = new ArrayList<>( userConfigs );
+        configs.add( gitDir.resolve( "config" ) );
+        for ( Path config : configs )
+        {
+            if ( !Files.isRegularFile( config ) )
+            {
+                continue;
+            }
+            final Map<String, String> core = coreConfig( config );
+            autocrlf = core.getOrDefault( "autocrlf", autocrlf );
+            if ( core.containsKey( "attributesfile" ) )
+            {
+                return "core.attributesFile in " + config;
+            }
+        }
+        if ( !equalsAnyIgnoreCase( autocrlf, "false", "no", "off", "0" ) )
+        {
+            return "core.autocrlf=" + autocrlf;
+        }
+
+        final List<Path> attributes = new ArrayList<>();
+        attributes.add( gitDir.resolve( "info" ).resolve( "attributes" ) );
+        for ( String file : trackedFiles )
+        {
+            if ( file.equals( ATTRIBUTES_FILE ) || file.endsWith( "/" + ATTRIBUTES_FILE ) )
+            {
+                attributes.add( workTree.resolve( file ) );
+            }
+        }
+        for ( Path file : attributes )
+        {
+            if ( Files.isRegularFile( file ) && hasConversionAttributes( Files.readAllLines( file, UTF_8 ) ) )
+            {
+                return "attributes in " + file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return keys and values of {@code [core]} section in lower case, key without value is true
+     */
+    private static Map<String, String> coreConfig( Path config ) throws IOException
+    {
+        final Map<String, String> core = new HashMap<>();
+        boolean inCore = false;
+        for ( String line : Files.readAllLines( config, UTF_8 ) )
+        {
+            final String trimmed = line.trim().toLowerCase( Locale.ROOT );
+            if ( trimmed.startsWith( "[" ) )
+            {
+                inCore = trimmed.matches( "\\[\\s*core\\s*\\].*" );
+            }
+            else if ( inCore && !trimmed.isEmpty() && !trimmed.startsWith( "#" ) && !trimmed.startsWith( ";" ) )
+            {
+                final int separator = trimmed.indexOf( '=' );
+                if ( separator < 0 )
+                {
+                    core.put( trimmed, "true" );
+                }
+                else
+                {
+                    core.put( trimmed.substring( 0, separator ).trim(),
+                            trimmed.substring( separator + 1 ).replaceAll( "[\"\\s]|[#;].*", "" ) );
+                }
+            }
+        }
+        return core;
+    }
+
+    /**
+     * @return true if some line sets or specifies an attribute which converts content. Unset ({@code -text}) and
+     * unspecified ({@code !text}) attributes don't convert
+     */
+    static boolean hasConversionAttributes( List<String> lines )
+    {
+        for ( String line : lines )
+        {
+            final String[] tokens = line.trim().split( "\\s+" );
+            if ( tokens[0].isEmpty() || tokens[0].startsWith( "#" ) )
+            {
+                continue;
+            }
+            for ( int i = 1; i < tokens.length; i++ )
+            {
+                final String name = StringUtils.substringBefore( tokens[i], "=" );
+                if ( CONVERSION_ATTRIBUTES.contains( name ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSha256Repository( Path gitDir ) throws IOException
+    {
+        final Path config = gitDir.resolve( "config" );
+        if ( !Files.isRegularFile( config ) )
+        {
+            return false;
+        }
+        for ( String line : Files.readAllLines( config, UTF_8 ) )
+        {
+            if ( line.replace( " ", "" ).replace( "\t", "" ).equalsIgnoreCase( "objectformat=sha256" ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Map<String, Entry> parse( ByteBuffer index, FileTime indexModified ) throws IOException
+    {
+        try
+        {
+            if ( index.getInt() != SIGNATURE )
+            {
+                throw new IOException( "Not a git index" );
+            }
+            final int version = index.getInt();
+            if ( version < 2 || version > 4 )
+            {
+                throw new IOException( "Unsupported git index version " + version );
+            }
+            final int count = index.getInt();
+            final long indexSeconds = indexModified.to( TimeUnit.SECONDS );
+            final int indexNanos = ( int ) ( indexModified.to( TimeUnit.NANOSECONDS ) % 1_000_000_000L );
+
+            final Map<String, Entry> entries = new HashMap<>( count * 2 );
+            final ByteArrayOutputStream pathBuffer = new ByteArrayOutputStream( 256 );
+            byte[] previousPath = new byte[0];
+            for ( int i = 0; i < count; i++ )
+            {
+                final int start = index.position();
+                index.position( start + 8 ); // ctime
+                final long mtimeSeconds = index.getInt() & 0xFFFFFFFFL;
+                final int mtimeNanos = index.getInt();
+                index.position( index.position() + 8 ); // dev, ino
+                final int mode = index.getInt();
+                index.position( index.position() + 8 ); // uid, gid
+                final int size = index.getInt();
+                final byte[] objectId = new byte[OBJECT_ID_LENGTH];
+                index.get( objectId );
+                final int flags = index.getShort() & 0xFFFF;
+                final int extendedFlags = version >= 3 && ( flags & FLAG_EXTENDED ) != 0 ? index.getShort() & 0xFFFF
+                        : 0;
+
+                pathBuffer.reset();
+                if ( version == 4 )
+                {
+                    final int strip = readOffset( index );
+                    pathBuffer.write( previousPath, 0, previousPath.length - strip );
+                }
+                byte b;
+                while ( ( b = index.get() ) != 0 )
+                {
+                    pathBuffer.write( b );
+                }
+                final byte[] path = pathBuffer.toByteArray();
+                if ( version < 4 )
+                {
+                    // entries are padded with 1-8 nul bytes to a multiple of 8
+                    final int length = index.position() - start;
+                    index.position( start + ( ( length + 7 ) & ~7 ) );
+                }
+                previousPath = path;
+
+                final int stage = ( flags >> 12 ) & 3;
+                final boolean clean = stage == 0
+                        && ( mode & MODE_TYPE_MASK ) == MODE_REGULAR_FILE
+                        && ( flags & FLAG_ASSUME_VALID ) == 0
+                        && ( extendedFlags & ( EXTENDED_SKIP_WORKTREE | EXTENDED_INTENT_TO_ADD ) ) == 0
+                        // racily clean: file could be modified within the same timestamp after the index was written
+                        && ( mtimeSeconds < indexSeconds || mtimeSeconds == indexSeconds && mtimeNanos < indexNanos );
+                // entries of files which are not clean are kept as tracked files without recorded blob
+                entries.put( new String( path, UTF_8 ),
+                        new Entry( size, mtimeSeconds, mtimeNanos, clean ? HexUtils.encode( objectId ) : null ) );
+            }
+            return entries;
+        }
+        catch ( BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e )
+        {
+            throw new IOException( "Truncated git index", e );
+        }
+    }
+
+    /**
+     * Variable length offset of index version 4 path compression
+     */
+    private static int readOffset( ByteBuffer index )
+    {
+        int c = index.get() & 0xFF;
+        int value = c & 0x7F;
+        while ( ( c & 0x80 ) != 0 )
+        {
+            c = index.get() & 0xFF;
+            value = ( ( value + 1 ) << 7 ) | ( c & 0x7F );
+        }
+        return value;
+    }
+
+    /**
+     * @return blob id recorded in the index if the file is clean, otherwise blob id of the file content
+     */
+    public String blobId( Path file, BasicFileAttributes attributes ) throws IOException
+    {
+        final Path absolute = file.toAbsolutePath().normalize();
+        if ( absolute.startsWith( workTree ) )
+        {
+            final Entry entry = entries.get( FilenameUtils.separatorsToUnix( workTree.relativize( absolute )
+                    .toString() ) );
+            if ( entry != null && entry.objectId != null && entry.matches( attributes ) )
+            {
+                return entry.objectId;
+            }
+        }
+        return hashBlob( file, attributes.size() );
+    }
+
+    /**
+     * Git blob id: SHA-1 of the blob header followed by the file content
+     */
+    static String hashBlob( Path file, long size ) throws IOException
+    {
+        final HashAlgorithm algorithm = HashFactory.SHA1.createAlgorithm();
+        return algorithm.hash( output ->
+        {
+            output.write( ( "blob " + size + "\0" ).getBytes( US_ASCII ) );
+            Files.copy( file, output );
+        } );
+    }
+
+    /**
+     * Tracked file, object id is null if the file is not clean
+     */
+    static class Entry
+    {
+
+        private final int size;
+        private final long mtimeSeconds;
+        private final int mtimeNanos;
+        private final String objectId;
+
+        Entry( int size, long mtimeSeconds, int mtimeNanos, String objectId )
+        {
+            this.size = size;
+            this.mtimeSeconds = mtimeSeconds;
+            this.mtimeNanos = mtimeNanos;
+            this.objectId = objectId;
+        }
+
+        boolean matches( BasicFileAttributes attributes )
+        {
+            final FileTime modified = attributes.lastModifiedTime();
+            final long seconds = modified.to( TimeUnit.SECONDS );
+            final int nanos = ( int ) ( modified.to( TimeUnit.NANOSECONDS ) % 1_000_000_000L );
+            // index stores 32 bit size and seconds, nanoseconds are zero if git is built without nanosecond support
+            return size == ( int ) attributes.size()
+                    && mtimeSeconds == ( seconds & 0xFFFFFFFFL )
+                    && ( mtimeNanos == 0 || mtimeNanos == nanos );
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Cache of compiled glob matchers. Extension alternatives of a glob ({@code *.java}) are matched by hashed lookup of the
+ * file extension, the rest of alternatives falls back to the regular file system glob matcher. Matchers are intended
+ * for file names, as globs are applied to directory entries
+ */
+public class GlobMatchers
+{
+
+    private static final String GLOB_SPECIAL_CHARS = "*?[]{}\\,/";
+
+    /**
+     * Glob matching of the default file system is case insensitive on Windows
+     */
+    private static final boolean IGNORE_CASE = FileSystems.getDefault().getPathMatcher( "glob:a" )
+            .matches( Paths.get( "A" ) );
+
+    private final ConcurrentMap<String, PathMatcher> matchers = new ConcurrentHashMap<>();
+
+    public PathMatcher get( String glob )
+    {
+        return matchers.computeIfAbsent( glob, GlobMatchers::compile );
+    }
+
+    static PathMatcher compile( String glob )
+    {
+        final List<String> alternatives = alternatives( glob );
+        if ( alternatives == null )
+        {
+            return fileSystemMatcher( glob );
+        }
+
+        final Set<String> extensions = new HashSet<>();
+        final List<String> others = new ArrayList<>();
+        for ( String alternative : alternatives )
+        {
+            final String extension = alternative.startsWith( "*." ) ? alternative.substring( 2 ) : null;
+            if ( extension != null && !extension.isEmpty() && !StringUtils.containsAny( extension,
+                    GLOB_SPECIAL_CHARS + "." ) )
+            {
+                extensions.add( IGNORE_CASE ? extension.toLowerCase( Locale.ROOT ) : extension );
+            }
+            else
+            {
+                others.add( alternative );
+            }
+        }
+
+        if ( extensions.isEmpty() )
+        {
+            return fileSystemMatcher( glob );
+        }
+        final PathMatcher fallback = others.isEmpty() ? null
+                : fileSystemMatcher( "{" + String.join( ",", others ) + "}" );
+        return new ExtensionMatcher( extensions, fallback );
+    }
+
+    /**
+     * @return top level alternatives of the glob or null if glob structure is not supported for optimization
+     */
+    private static List<String> alternatives( String glob )
+    {
+        if ( glob.indexOf( '\\' ) >= 0 )
+        {
+            return null;
+        }
+        if ( !glob.startsWith( "{" ) )
+        {
+            return StringUtils.containsAny( glob, "{}," ) ? null : Collections.singletonList( glob );
+        }
+        if ( glob.length() < 2 || !glob.endsWith( "}" ) )
+        {
+            return null;
+        }
+        final String body = glob.substring( 1, glob.length() - 1 );
+        return StringUtils.containsAny( body, "{}" ) ? null
+                : Arrays.asList( StringUtils.splitPreserveAllTokens( body, ',' ) );
+    }
+
+    private static PathMatcher fileSystemMatcher( String glob )
+    {
+        return FileSystems.getDefault().getPathMatcher( "glob:" + glob );
+    }
+
+    /**
+     * Matches file names by extension, delegates other alternatives to the file system matcher
+     */
+    private static class ExtensionMatcher implements PathMatcher
+    {
+
+        private final Set<String> extensions;
+        private final PathMatcher fallback;
+
+        ExtensionMatcher( Set<String> extensions, PathMatcher fallback )
+        {
+            this.extensions = extensions;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public boolean matches( Path path )
+        {
+            // '*' does not cross directory boundaries, so extension alternatives match only single name paths
+            if ( path.getRoot() == null && path.getNameCount() == 1 )
+            {
+                final String name = path.toString();
+                final int dot = name.lastIndexOf( '.' );
+                if ( dot >= 0 )
+                {
+                    final String extension = name.substring( dot + 1 );
+                    if ( extensions.contains( IGNORE_CASE ? extension.toLowerCase( Locale.ROOT ) : extension ) )
+                    {
+                        return true;
+                    }
+                }
+            }
+            return fallback != null && fallback.matches( path );
+        }
+    }
+}
@@ -21,28 +21,35 @@
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.file.DirectoryStream;
+import java.nio.charset.Charset;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.SortedSet;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import org.apache.commons.lang3.StringUtils;
@@ -50,6 +57,7 @@
 import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
 import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.caching.CacheUtils;
+import org.apache.maven.caching.LocalCacheRepository;
 import org.apache.maven.caching.MultiModuleSupport;
 import org.apache.maven.caching.NormalizedModelProvider;
 import org.apache.maven.caching.PluginScanConfig;
@@ -59,6 +67,8 @@
 import org.apache.maven.caching.Xpp3DomUtils;
 import org.apache.maven.caching.hash.HashAlgorithm;
 import org.apache.maven.caching.hash.HashChecksum;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.caching.hash.HexUtils;
 import org.apache.maven.caching.xml.CacheConfig;
 import org.apache.maven.caching.xml.DtoUtils;
 import org.apache.maven.caching.xml.build.DigestItem;
@@ -79,6 +89,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.commons.lang3.StringUtils.contains;
 import static org.apache.commons.lang3.StringUtils.defaultIfEmpty;
 import static org.apache.commons.lang3.StringUtils.equalsAnyIgnoreCase;
@@ -124,21 +135,40 @@
      */
     private static final String CACHE_PROCESS_PLUGINS = "remote.cache.processPlugins";
 
+    /**
+     * Inputs modified within this interval are not fingerprinted - subsequent modification could keep the same stat data
+     */
+    private static final long RACY_INTERVAL_MILLIS = 2000;
+
+    private static final String[] EFFECTIVE_POM_REPLACEMENT_LIST = { "", "/", "os.classifier", "os.classifier" };
+
     private static final Logger LOGGER = LoggerFactory.getLogger( MavenProjectInput.class );
 
     private final MavenProject project;
     private final MavenSession session;
     private final RemoteCacheRepository remoteCache;
+    private final LocalCacheRepository localCache;
     private final RepositorySystem repoSystem;
     private final CacheConfig config;
-    private final PathIgnoringCaseComparator fileComparator;
-    private final List<Path> filteredOutPaths;
+    private final PathExclusions filteredOutPaths;
     private final NormalizedModelProvider normalizedModelProvider;
     private final MultiModuleSupport multiModuleSupport;
     private final ProjectInputCalculator projectInputCalculator;
     private final Path baseDirPath;
     private final String dirGlob;
     private final boolean processPlugins;
+    private final FileHashIndex fileHashIndex;
+    private final DependencyHashIndex dependencyHashIndex;
+    /**
+     * Git index, if input files are hashed as git blobs
+     */
+    private final GitIndex gitIndex;
+    private final int hashingThreads;
+    private final GlobMatchers globMatchers;
+    /**
+     * Executor shared by calculations of all projects, bounded by configured hashing threads
+     */
+    private final ForkJoinPool executor;
 
     @SuppressWarnings( "checkstyle:parameternumber" )
     public MavenProjectInput( MavenProject project,
@@ -148,7 +178,13 @@ public MavenProjectInput( MavenProject project,
             MavenSession session,
             CacheConfig config,
             RepositorySystem repoSystem,
-            RemoteCacheRepository remoteCache )
+            RemoteCacheRepository remoteCache,
+            LocalCacheRepository localCache,
+            FileHashIndex fileHashIndex,
+            DependencyHashIndex dependencyHashIndex,
+            GitIndex gitIndex,
+            GlobMatchers globMatchers,
+            ForkJoinPool executor )
     {
         this.project = project;
         this.normalizedModelProvider = normalizedModelProvider;
@@ -159,54 +195,85 @@ public MavenProjectInput( MavenProject project,
         this.baseDirPath = project.getBasedir().toPath().toAbsolutePath();
         this.repoSystem = repoSystem;
         this.remoteCache = remoteCache;
+        this.localCache = localCache;
+        this.fileHashIndex = fileHashIndex;
+        this.dependencyHashIndex = dependencyHashIndex;
+        this.gitIndex = gitIndex;
+        this.hashingThreads = config.getHashingThreads();
+        this.globMatchers = globMatchers;
+        this.executor = executor;
         Properties properties = project.getProperties();
         this.dirGlob = properties.getProperty( CACHE_INPUT_GLOB_NAME, config.getDefaultGlob() );
         this.processPlugins = Boolean.parseBoolean(
                 properties.getProperty( CACHE_PROCESS_PLUGINS, config.isProcessPlugins() ) );
 
         org.apache.maven.model.Build build = project.getBuild();
-        filteredOutPaths = new ArrayList<>( Arrays.asList( normalizedPath( build.getDirectory() ), // target by default
+        List<Path> excludedPaths = new ArrayList<>( Arrays.asList( normalizedPath( build.getDirectory() ), // target
                 normalizedPath( build.getOutputDirectory() ), normalizedPath( build.getTestOutputDirectory() ) ) );
 
         List<Exclude> excludes = config.getGlobalExcludePaths();
         for ( Exclude excludePath : excludes )
         {
-            filteredOutPaths.add( Paths.get( excludePath.getValue() ) );
+            excludedPaths.add( Paths.get( excludePath.getValue() ) );
         }
 
         for ( String propertyName : properties.stringPropertyNames() )
         {
             if ( propertyName.startsWith( CACHE_EXCLUDE_NAME ) )
             {
-                filteredOutPaths.add( Paths.get( properties.getProperty( propertyName ) ) );
+                excludedPaths.add( Paths.get( properties.getProperty( propertyName ) ) );
             }
         }
-
-        this.fileComparator = new PathIgnoringCaseComparator();
+        filteredOutPaths = new PathExclusions( excludedPaths );
     }
 
     public ProjectsInputInfo calculateChecksum() throws IOException
     {
         final long t0 = System.currentTimeMillis();
 
-        final String effectivePom = getEffectivePom( normalizedModelProvider.normalizedModel( project ) );
-        final SortedSet<Path> inputFiles = isPom( project ) ? Collections.emptySortedSet() : getInputFiles();
+        final Model effectiveModel = normalizedModelProvider.normalizedModel( project );
+        final List<Path> inputFiles = isPom( project ) ? Collections.emptyList() : getInputFiles();
         final SortedMap<String, String> dependenciesChecksum = getMutableDependencies();
 
+        // hash items: effective pom + input files (or root of files tree) + dependencies
+        final boolean merkleTree = config.isMerkleTreeEnabled();
+        final int count = 1 + ( merkleTree ? 1 : inputFiles.size() ) + dependenciesChecksum.size();
+        final HashChecksum checksum = config.getHashFactory().createChecksum( count );
+        final DigestItem effectivePomChecksum = effectivePomDigest( checksum, effectiveModel );
+
         final long t1 = System.currentTimeMillis();
 
-        // hash items: effective pom + input files + dependencies
-        final int count = 1 + inputFiles.size() + dependenciesChecksum.size();
-        final List<DigestItem> items = new ArrayList<>( count );
-        final HashChecksum checksum = config.getHashFactory().createChecksum( count );
+        // baseline comparison reports differences while calculating, stored inputs can't be used
+        final InputsFingerprint fingerprint = config.isBaselineDiffEnabled() ? null
+                : inputsFingerprint( effectivePomChecksum, inputFiles, dependenciesChecksum );
+        if ( fingerprint != null )
+        {
+            final Optional<ProjectsInputInfo> stored = localCache.findProjectInputs( session, project,
+                    fingerprint.value );
+            if ( stored.isPresent() )
+            {
+                // files are not looked up, the index must not drop their entries on save
+                fileHashIndex.retainLoaded();
+                LOGGER.info( "Project inputs calculated in {} ms. {} checksum [{}] of unchanged inputs reused "
+                                + "from the previous build.", t1 - t0, config.getHashFactory().getAlgorithm(),
+                        stored.get().getChecksum() );
+                return stored.get();
+            }
+        }
+
+        final List<DigestItem> fileDigests = hashFiles( inputFiles );
+
+        final long t2 = System.currentTimeMillis();
 
-        Optional<ProjectsInputInfo> baselineHolder = Optional.empty();
+        final List<DigestItem> items = new ArrayList<>( 1 + inputFiles.size() + dependenciesChecksum.size() );
+
+        Optional<BaselineIndex> baselineHolder = Optional.empty();
         if ( config.isBaselineDiffEnabled() )
         {
-            baselineHolder = remoteCache.findBaselineBuild( project ).map( b -> b.getDto().getProjectsInputInfo() );
+            baselineHolder = remoteCache.findBaselineBuild( project )
+                    .map( b -> new BaselineIndex( b.getDto().getProjectsInputInfo() ) );
         }
 
-        DigestItem effectivePomChecksum = DigestUtils.pom( checksum, effectivePom );
         items.add( effectivePomChecksum );
         final boolean compareWithBaseline = config.isBaselineDiffEnabled() && baselineHolder.isPresent();
         if ( compareWithBaseline )
@@ -215,13 +282,32 @@ public ProjectsInputInfo calculateChecksum() throws IOException
         }
 
         boolean sourcesMatched = true;
-        for ( Path file : inputFiles )
+        final boolean fileDetails = config.isFileDetailsEnabled();
+        final Iterator<Path> inputFilesIterator = inputFiles.iterator();
+        for ( DigestItem fileDigest : fileDigests )
         {
-            DigestItem fileDigest = DigestUtils.file( checksum, baseDirPath, file );
+            final Path inputFile = inputFilesIterator.next();
+            // files are hashed concurrently, but checksum must be updated in the sorted order
+            if ( !merkleTree && gitIndex != null )
+            {
+                // blob ids are SHA-1 wide, checksum takes hashes of the configured algorithm: blob id is hashed
+                checksum.update( HexUtils.decode( fileDigest.getHash() ) );
+            }
+            else if ( !merkleTree )
+            {
+                checksum.update( fileDigest.getHash() );
+            }
             items.add( fileDigest );
+            boolean matched = true;
             if ( compareWithBaseline )
             {
-                sourcesMatched &= checkItemMatchesBaseline( baselineHolder.get(), fileDigest );
+                matched = checkItemMatchesBaseline( baselineHolder.get(), fileDigest );
+                sourcesMatched &= matched;
+            }
+            // details are costly and used for diagnostics only: compute for mismatched files unless requested
+            if ( fileDetails || !matched )
+            {
+                DigestUtils.populateContentDetails( inputFile, fileDigest );
             }
         }
         if ( compareWithBaseline )
@@ -229,6 +315,18 @@ public ProjectsInputInfo calculateChecksum() throws IOException
             LOGGER.info( "Source code: {}", sourcesMatched ? "MATCHED" : "OUT OF DATE" );
         }
 
+        final List<DigestItem> directories;
+        if ( merkleTree )
+        {
+            final MerkleTree tree = MerkleTree.build( config.getHashFactory().createAlgorithm(), fileDigests );
+            checksum.update( tree.getRootHash() );
+            directories = tree.getDirectories();
+        }
+        else
+        {
+            directories = Collections.emptyList();
+        }
+
         boolean dependenciesMatched = true;
         for ( Map.Entry<String, String> entry : dependenciesChecksum.entrySet() )
         {
@@ -248,33 +346,140 @@ public ProjectsInputInfo calculateChecksum() throws IOException
         final ProjectsInputInfo projectsInputInfoType = new ProjectsInputInfo();
         projectsInputInfoType.setChecksum( checksum.digest() );
         projectsInputInfoType.getItems().addAll( items );
+        projectsInputInfoType.getDirectories().addAll( directories );
 
-        final long t2 = System.currentTimeMillis();
+        final long t3 = System.currentTimeMillis();
 
         for ( DigestItem item : projectsInputInfoType.getItems() )
         {
             LOGGER.debug( "Hash calculated, item: {}, hash: {}", item.getType(), item.getHash() );
         }
-        LOGGER.info( "Project inputs calculated in {} ms. {} checksum [{}] calculated in {} ms.",
-                t1 - t0, config.getHashFactory().getAlgorithm(), projectsInputInfoType.getChecksum(), t2 - t1 );
+        LOGGER.info( "Project inputs calculated in {} ms. {} checksum [{}] calculated in {} ms "
+                        + "(input files hashing: {} ms, threads: {}).",
+                t1 - t0, config.getHashFactory().getAlgorithm(), projectsInputInfoType.getChecksum(), t3 - t1,
+                t2 - t1, hashingThreads( inputFiles ) );
+        if ( fingerprint != null && fingerprint.stable )
+        {
+            localCache.saveProjectInputs( session, project, fingerprint.value, projectsInputInfoType );
+        }
         return projectsInputInfoType;
     }
 
-    private void checkEffectivePomMatch( ProjectsInputInfo baselineBuild, DigestItem effectivePomChecksum )
+    /**
+     * Fingerprint of everything the checksum and recorded items are calculated from: calculation options, effective pom
+     * hash, stat data of input files and checksums of dependencies. Input files are not read
+     */
+    private InputsFingerprint inputsFingerprint( DigestItem effectivePom, List<Path> inputFiles,
+            SortedMap<String, String> dependencies ) throws IOException
+    {
+        final long racyBoundary = System.currentTimeMillis() - RACY_INTERVAL_MILLIS;
+        final boolean[] stable = { true };
+        final String value = config.getHashFactory().createAlgorithm().hash( output ->
+        {
+            final Writer writer = new OutputStreamWriter( output, UTF_8 );
+            // options which change recorded items, not only the checksum
+            writer.write( CACHE_IMPLEMENTATION_VERSION + '\n' + config.getHashFactory().getAlgorithm() + '\n'
+                    + config.isMerkleTreeEnabled() + '\n' + ( gitIndex != null ) + '\n'
+                    + config.isFileDetailsEnabled() + '\n' + config.isSaveEffectivePom() + '\n'
+                    + config.isBaselineDiffEnabled() + '\n' + effectivePom.getHash() + '\n' );
+            for ( Path file : inputFiles )
+            {
+                final BasicFileAttributes attributes = Files.readAttributes( file, BasicFileAttributes.class );
+                final long lastModified = attributes.lastModifiedTime().toMillis();
+                // file could be modified again within the same timestamp
+                stable[0] &= lastModified < racyBoundary;
+                writer.write( file + "\t" + attributes.size() + '\t' + lastModified + '\t'
+                        + attributes.fileKey() + '\n' );
+            }
+            for ( Map.Entry<String, String> dependency : dependencies.entrySet() )
+            {
+                writer.write( dependency.getKey() + '\t' + dependency.getValue() + '\n' );
+            }
+            writer.flush();
+        } );
+        return new InputsFingerprint( value, stable[0] );
+    }
+
+    /**
+     * Hashes input files, concurrently if configured. Result preserves order of input files
+     */
+    private List<DigestItem> hashFiles( List<Path> inputFiles ) throws IOException
     {
-        Optional<DigestItem> pomHolder = Optional.empty();
-        for ( DigestItem it : baselineBuild.getItems() )
+        final HashFactory hashFactory = config.getHashFactory();
+        final int threads = hashingThreads( inputFiles );
+        if ( threads <= 1 )
+        {
+            final HashAlgorithm algorithm = hashFactory.createAlgorithm();
+            final List<DigestItem> digests = new ArrayList<>( inputFiles.size() );
+            for ( Path file : inputFiles )
+            {
+                digests.add( hashFile( algorithm, file ) );
+            }
+            return digests;
+        }
+
+        final List<ForkJoinTask<DigestItem>> tasks = new ArrayList<>( inputFiles.size() );
+        try
+        {
+            for ( Path file : inputFiles )
+            {
+                // algorithms are not thread safe, each task takes its own instance
+                tasks.add( executor.submit( () -> hashFile( hashFactory.createAlgorithm(), file ) ) );
+            }
+            final List<DigestItem> digests = new ArrayList<>( inputFiles.size() );
+            for ( ForkJoinTask<DigestItem> task : tasks )
+            {
+                // joining from a pool thread (e.g. precalculation) runs pending tasks instead of blocking
+                digests.add( task.get() );
+            }
+            return digests;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while hashing input files of " + project.getArtifactId() );
+        }
+        catch ( ExecutionException e )
         {
-            if ( it.getType().equals( "pom" ) )
+            if ( e.getCause() instanceof IOException )
             {
-                pomHolder = Optional.of( it );
-                break;
+                throw ( IOException ) e.getCause();
             }
+            throw new IOException( "Cannot hash input files of " + project.getArtifactId(), e.getCause() );
+        }
+        finally
+        {
+            cancel( tasks );
         }
+    }
 
-        if ( pomHolder.isPresent() )
+    /**
+     * Cancels tasks not started yet, e.g. after a failure of another task
+     */
+    private static void cancel( List<? extends ForkJoinTask<?>> tasks )
+    {
+        for ( ForkJoinTask<?> task : tasks )
+        {
+            task.cancel( false );
+        }
+    }
+
+    private DigestItem hashFile( HashAlgorithm algorithm, Path file ) throws IOException
+    {
+        return gitIndex != null ? DigestUtils.file( baseDirPath, file, gitIndex )
+                : DigestUtils.file( algorithm, baseDirPath, file, fileHashIndex );
+    }
+
+    private int hashingThreads( List<Path> inputFiles )
+    {
+        return Math.max( 1, Math.min( hashingThreads, inputFiles.size() ) );
+    }
+
+    private void checkEffectivePomMatch( BaselineIndex baselineBuild, DigestItem effectivePomChecksum )
+    {
+        final DigestItem pomItem = baselineBuild.findFirst( "pom" );
+        if ( pomItem != null )
         {
-            DigestItem pomItem = pomHolder.get();
             final boolean matches = StringUtils.equals( pomItem.getHash(), effectivePomChecksum.getHash() );
             if ( !matches )
             {
@@ -285,18 +490,10 @@ private void checkEffectivePomMatch( ProjectsInputInfo baselineBuild, DigestItem
         }
     }
 
-    private boolean checkItemMatchesBaseline( ProjectsInputInfo baselineBuild, DigestItem fileDigest )
+    private boolean checkItemMatchesBaseline( BaselineIndex baselineBuild, DigestItem fileDigest )
     {
-        Optional<DigestItem> baselineFileDigest = Optional.empty();
-        for ( DigestItem it : baselineBuild.getItems() )
-        {
-            if ( it.getType().equals( fileDigest.getType() )
-                    && fileDigest.getValue().equals( it.getValue().trim() ) )
-            {
-                baselineFileDigest = Optional.of( it );
-                break;
-            }
-        }
+        final Optional<DigestItem> baselineFileDigest = Optional.ofNullable(
+                baselineBuild.find( fileDigest.getType(), fileDigest.getValue() ) );
 
         boolean matched = false;
         if ( baselineFileDigest.isPresent() )
@@ -317,6 +514,50 @@ private boolean checkItemMatchesBaseline( ProjectsInputInfo baselineBuild, Diges
         return matched;
     }
 
+    /**
+     * Effective pom is normalized while written and streamed into the hash. Text is kept only if baseline diff or debug
+     * output needs it
+     */
+    private DigestItem effectivePomDigest( HashChecksum checksum, Model prototype ) throws IOException
+    {
+        final boolean keepText = config.isBaselineDiffEnabled() || config.isSaveEffectivePom();
+        final HashAlgorithm algorithm = config.getHashFactory().createAlgorithm();
+
+        // in memory variant decodes xml with platform charset, streaming is equivalent only for utf-8 round trip
+        final String encoding = prototype.getModelEncoding();
+        if ( UTF_8.equals( Charset.defaultCharset() ) && ( encoding == null || UTF_8.name().equalsIgnoreCase(
+                encoding ) ) )
+        {
+            final StringBuilder text = keepText ? new StringBuilder() : null;
+            final AtomicBoolean repeatable = new AtomicBoolean();
+            final String hash = algorithm.hash( output ->
+            {
+                final NormalizingWriter writer = new NormalizingWriter( new OutputStreamWriter( output, UTF_8 ),
+                        effectivePomSearchList(), EFFECTIVE_POM_REPLACEMENT_LIST, text );
+                new MavenXpp3Writer().write( writer, prototype );
+                writer.close();
+                repeatable.set( writer.isReplacementRepeatable() );
+            } );
+            if ( !repeatable.get() )
+            {
+                return DigestUtils.pom( checksum, hash, text != null ? text.toString() : null );
+            }
+            LOGGER.debug( "Effective pom normalization needs another pass, hashing in memory: {}", project );
+        }
+
+        final String effectivePom = getEffectivePom( prototype );
+        return DigestUtils.pom( checksum, algorithm.hash( effectivePom.getBytes( UTF_8 ) ),
+                keepText ? effectivePom : null );
+    }
+
+    /**
+     * Env specifics replaced in effective pom
+     */
+    private String[] effectivePomSearchList()
+    {
+        return new String[] { baseDirPath.toString(), "\\", "windows", "linux" };
+    }
+
     /**
      * @param prototype effective model fully resolved by maven build. Do not pass here just parsed Model.
      */
@@ -331,14 +572,7 @@ private String getEffectivePom( Model prototype ) throws IOException
             new MavenXpp3Writer().write( writer, prototype );
 
             //normalize env specifics
-            final String[] searchList =
-            { baseDirPath.toString(), "\\", "windows", "linux"
-            };
-            final String[] replacementList =
-            { "", "/", "os.classifier", "os.classifier"
-            };
-
-            return replaceEachRepeatedly( output.toString(), searchList, replacementList );
+            return replaceEachRepeatedly( output.toString(), effectivePomSearchList(), EFFECTIVE_POM_REPLACEMENT_LIST );
 
         }
         finally
@@ -347,25 +581,25 @@ private String getEffectivePom( Model prototype ) throws IOException
         }
     }
 
-    private SortedSet<Path> getInputFiles()
+    private List<Path> getInputFiles() throws IOException
     {
         long start = System.currentTimeMillis();
-        HashSet<WalkKey> visitedDirs = new HashSet<>();
-        ArrayList<Path> collectedFiles = new ArrayList<>();
+        Set<WalkKey> visitedDirs = ConcurrentHashMap.newKeySet();
+        List<WalkKey> roots = new ArrayList<>();
 
         org.apache.maven.model.Build build = project.getBuild();
 
         final boolean recursive = true;
-        startWalk( Paths.get( build.getSourceDirectory() ), dirGlob, recursive, collectedFiles, visitedDirs );
+        roots.add( new WalkKey( Paths.get( build.getSourceDirectory() ), dirGlob, recursive ) );
         for ( Resource resource : build.getResources() )
         {
-            startWalk( Paths.get( resource.getDirectory() ), dirGlob, recursive, collectedFiles, visitedDirs );
+            roots.add( new WalkKey( Paths.get( resource.getDirectory() ), dirGlob, recursive ) );
         }
 
-        startWalk( Paths.get( build.getTestSourceDirectory() ), dirGlob, recursive, collectedFiles, visitedDirs );
+        roots.add( new WalkKey( Paths.get( build.getTestSourceDirectory() ), dirGlob, recursive ) );
         for ( Resource testResource : build.getTestResources() )
         {
-            startWalk( Paths.get( testResource.getDirectory() ), dirGlob, recursive, collectedFiles, visitedDirs );
+            roots.add( new WalkKey( Paths.get( testResource.getDirectory() ), dirGlob, recursive ) );
         }
 
         Properties properties = project.getProperties();
@@ -374,7 +608,7 @@ private SortedSet<Path> getInputFiles()
             if ( name.startsWith( CACHE_INPUT_NAME ) )
             {
                 String path = properties.getProperty( name );
-                startWalk( Paths.get( path ), dirGlob, recursive, collectedFiles, visitedDirs );
+                roots.add( new WalkKey( Paths.get( path ), dirGlob, recursive ) );
             }
         }
 
@@ -383,9 +617,11 @@ private SortedSet<Path> getInputFiles()
         {
             final String path = include.getValue();
             final String glob = defaultIfEmpty( include.getGlob(), dirGlob );
-            startWalk( Paths.get( path ), glob, include.isRecursive(), collectedFiles, visitedDirs );
+            roots.add( new WalkKey( Paths.get( path ), glob, include.isRecursive() ) );
         }
 
+        List<Path> collectedFiles = walkRoots( roots, visitedDirs );
+
         long walkKnownPathsFinished = System.currentTimeMillis() - start;
 
         LOGGER.info( "Scanning plugins configurations to find input files. Probing is {}", processPlugins
@@ -403,11 +639,7 @@ private SortedSet<Path> getInputFiles()
 
         long pluginsFinished = System.currentTimeMillis() - start - walkKnownPathsFinished;
 
-        TreeSet<Path> sorted = new TreeSet<>( fileComparator );
-        for ( Path collectedFile : collectedFiles )
-        {
-            sorted.add( collectedFile.normalize().toAbsolutePath() );
-        }
+        List<Path> sorted = sortInputFiles( collectedFiles );
 
         LOGGER.info( "Found {} input files. Project dir processing: {}, plugins: {} millis",
                 sorted.size(), walkKnownPathsFinished, pluginsFinished );
@@ -416,6 +648,87 @@ private SortedSet<Path> getInputFiles()
         return sorted;
     }
 
+    /**
+     * Normalizes, sorts and deduplicates collected files. Produces the same result as adding files to a {@code TreeSet}
+     * ordered by {@link PathIgnoringCaseComparator}, but computes comparison key only once per file
+     */
+    static List<Path> sortInputFiles( List<Path> collectedFiles )
+    {
+        final InputFileKey[] keys = new InputFileKey[collectedFiles.size()];
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            keys[i] = new InputFileKey( collectedFiles.get( i ).normalize().toAbsolutePath() );
+        }
+        // stable sort keeps the first collected file among equal ones as TreeSet did
+        Arrays.sort( keys, Comparator.comparing( InputFileKey::getKey ) );
+
+        final List<Path> sorted = new ArrayList<>( keys.length );
+        String previousKey = null;
+        for ( InputFileKey key : keys )
+        {
+            if ( !key.getKey().equals( previousKey ) )
+            {
+                sorted.add( key.getPath() );
+                previousKey = key.getKey();
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Walks independent roots concurrently. Roots visited by other tasks at the same time might be walked twice, that
+     * only costs extra work as collected files are deduplicated by the caller
+     */
+    private List<Path> walkRoots( List<WalkKey> roots, Set<WalkKey> visitedDirs ) throws IOException
+    {
+        final int threads = Math.max( 1, Math.min( hashingThreads, roots.size() ) );
+        final List<Path> collectedFiles = new ArrayList<>();
+        if ( threads <= 1 )
+        {
+            for ( WalkKey root : roots )
+            {
+                startWalk( root.getPath(), root.getGlob(), root.isRecursive(), collectedFiles, visitedDirs );
+            }
+            return collectedFiles;
+        }
+
+        final List<ForkJoinTask<List<Path>>> tasks = new ArrayList<>( roots.size() );
+        try
+        {
+            for ( WalkKey root : roots )
+            {
+                tasks.add( executor.submit( () ->
+                {
+                    final List<Path> files = new ArrayList<>();
+                    startWalk( root.getPath(), root.getGlob(), root.isRecursive(), files, visitedDirs );
+                    return files;
+                } ) );
+            }
+            for ( ForkJoinTask<List<Path>> task : tasks )
+            {
+                collectedFiles.addAll( task.get() );
+            }
+            return collectedFiles;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while scanning input files of " + project.getArtifactId() );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw ( RuntimeException ) e.getCause();
+            }
+            throw new IOException( "Cannot scan input files of " + project.getArtifactId(), e.getCause() );
+        }
+        finally
+        {
+            cancel( tasks );
+        }
+    }
+
     /**
      * entry point for directory walk
      */
@@ -428,12 +741,23 @@ private void startWalk( Path candidate,
         Path normalized = candidate.isAbsolute() ? candidate : baseDirPath.resolve( candidate );
         normalized = normalized.toAbsolutePath().normalize();
         WalkKey key = new WalkKey( normalized, glob, recursive );
-        if ( visitedDirs.contains( key ) || !Files.exists( normalized ) )
+        if ( visitedDirs.contains( key ) )
+        {
+            return;
+        }
+
+        final BasicFileAttributes attributes;
+        try
+        {
+            attributes = Files.readAttributes( normalized, BasicFileAttributes.class );
+        }
+        catch ( IOException e )
         {
+            // does not exist or not accessible
             return;
         }
 
-        if ( Files.isDirectory( normalized ) )
+        if ( attributes.isDirectory() )
         {
             if ( baseDirPath.startsWith( normalized ) )
             { // requested to walk parent, can do only non recursive
@@ -464,7 +788,7 @@ private Path normalizedPath( String directory )
         return Paths.get( directory ).normalize();
     }
 
-    private void collectFromPlugins( List<Path> files, HashSet<WalkKey> visitedDirs )
+    private void collectFromPlugins( List<Path> files, Set<WalkKey> visitedDirs )
     {
         List<Plugin> plugins = project.getBuild().getPlugins();
         for ( Plugin plugin : plugins )
@@ -508,57 +832,55 @@ private void collectFromPlugins( List<Path> files, HashSet<WalkKey> visitedDirs
         }
     }
 
-    private Path walkDir( final WalkKey key,
+    /**
+     * Single pass walk: files are matched against glob and filtered using attributes provided by the walk
+     */
+    private void walkDir( final WalkKey key,
             final List<Path> collectedFiles,
             final Set<WalkKey> visitedDirs ) throws IOException
     {
-        return Files.walkFileTree( key.getPath(), new SimpleFileVisitor<Path>()
-        {
-
-            @Override
-            public FileVisitResult preVisitDirectory( Path path,
-                    BasicFileAttributes basicFileAttributes ) throws IOException
-            {
-                WalkKey currentDirKey = new WalkKey( path.toAbsolutePath().normalize(), key.getGlob(),
-                        key.isRecursive() );
-                if ( isHidden( path ) )
-                {
-                    LOGGER.debug( "Skipping subtree (hidden): {}", path );
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
-                else if ( isFilteredOutSubpath( path ) )
+        final int maxDepth = key.isRecursive() ? Integer.MAX_VALUE : 1;
+        final PathMatcher matcher = globMatchers.get( key.getGlob() );
+        Files.walkFileTree( key.getPath(), Collections.emptySet(), maxDepth,
+                new InputFilesVisitor( collectedFiles, matcher, this::isFilteredOutFileName )
                 {
-                    LOGGER.debug( "Skipping subtree (blacklisted): {}", path );
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
-                else if ( visitedDirs.contains( currentDirKey ) )
-                {
-                    LOGGER.debug( "Skipping subtree (visited): {}", path );
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
 
-                walkDirectoryFiles(
-                        path,
-                        collectedFiles,
-                        key.getGlob(),
-                        entry -> filteredOutPaths.stream()
-                                .anyMatch( it -> it.getFileName().equals( entry.getFileName() ) ) );
-
-                if ( !key.isRecursive() )
-                {
-                    LOGGER.debug( "Skipping subtree (non recursive): {}", path );
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
+                    @Override
+                    public FileVisitResult preVisitDirectory( Path path,
+                            BasicFileAttributes basicFileAttributes )
+                    {
+                        WalkKey currentDirKey = new WalkKey( path.toAbsolutePath().normalize(), key.getGlob(),
+                                key.isRecursive() );
+                        if ( isHidden( path, basicFileAttributes ) )
+                        {
+                            LOGGER.debug( "Skipping subtree (hidden): {}", path );
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        else if ( isFilteredOutSubpath( path ) )
+                        {
+                            LOGGER.debug( "Skipping subtree (blacklisted): {}", path );
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        else if ( visitedDirs.contains( currentDirKey ) )
+                        {
+                            LOGGER.debug( "Skipping subtree (visited): {}", path );
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+
+                        LOGGER.debug( "Visiting subtree: {}", path );
+                        return FileVisitResult.CONTINUE;
+                    }
+                } );
+    }
 
-                LOGGER.debug( "Visiting subtree: {}", path );
-                return FileVisitResult.CONTINUE;
-            }
-        } );
+    private boolean isFilteredOutFileName( Path entry )
+    {
+        return filteredOutPaths.isExcludedFileName( entry );
     }
 
     private void addInputsFromPluginConfigs( Object[] configurationChildren,
             PluginScanConfig scanConfig,
-            List<Path> files, HashSet<WalkKey> visitedDirs )
+            List<Path> files, Set<WalkKey> visitedDirs )
     {
         if ( configurationChildren == null )
         {
@@ -631,6 +953,14 @@ private Path getPathOrNull( String text )
     }
 
     static void walkDirectoryFiles( Path dir, List<Path> collectedFiles, String glob, Predicate<Path> mustBeSkipped )
+    {
+        walkDirectoryFiles( dir, collectedFiles, GlobMatchers.compile( glob ), mustBeSkipped );
+    }
+
+    static void walkDirectoryFiles( Path dir,
+            List<Path> collectedFiles,
+            PathMatcher matcher,
+            Predicate<Path> mustBeSkipped )
     {
         if ( !Files.isDirectory( dir ) )
         {
@@ -639,21 +969,8 @@ static void walkDirectoryFiles( Path dir, List<Path> collectedFiles, String glob
 
         try
         {
-            try ( DirectoryStream<Path> stream = Files.newDirectoryStream( dir, glob ) )
-            {
-                for ( Path entry : stream )
-                {
-                    if ( mustBeSkipped.test( entry ) )
-                    {
-                        continue;
-                    }
-                    File file = entry.toFile();
-                    if ( file.isFile() && !isHidden( entry ) )
-                    {
-                        collectedFiles.add( entry );
-                    }
-                }
-            }
+            Files.walkFileTree( dir, Collections.emptySet(), 1,
+                    new InputFilesVisitor( collectedFiles, matcher, mustBeSkipped ) );
         }
         catch ( IOException e )
         {
@@ -661,22 +978,54 @@ static void walkDirectoryFiles( Path dir, List<Path> collectedFiles, String glob
         }
     }
 
-    private static boolean isHidden( Path entry ) throws IOException
+    private static boolean isHidden( Path entry, BasicFileAttributes attributes )
     {
-        return Files.isHidden( entry ) || entry.toFile().getName().startsWith( "." );
+        // on Windows walker provides dos attributes, so hidden flag is checked without extra file system calls
+        final Path fileName = entry.getFileName();
+        return fileName != null && fileName.toString().startsWith( "." )
+                || attributes instanceof DosFileAttributes && ( ( DosFileAttributes ) attributes ).isHidden();
     }
 
-    private boolean isFilteredOutSubpath( Path path )
+    /**
+     * Collects files matching glob using attributes already read by the walker
+     */
+    private static class InputFilesVisitor extends SimpleFileVisitor<Path>
     {
-        Path normalized = path.normalize();
-        for ( Path filteredOutDir : filteredOutPaths )
+
+        private final List<Path> collectedFiles;
+        private final PathMatcher matcher;
+        private final Predicate<Path> mustBeSkipped;
+
+        InputFilesVisitor( List<Path> collectedFiles, PathMatcher matcher, Predicate<Path> mustBeSkipped )
+        {
+            this.collectedFiles = collectedFiles;
+            this.matcher = matcher;
+            this.mustBeSkipped = mustBeSkipped;
+        }
+
+        @Override
+        public FileVisitResult visitFile( Path file, BasicFileAttributes attributes )
         {
-            if ( normalized.startsWith( filteredOutDir ) )
+            if ( matcher.matches( file.getFileName() )
+                    && !mustBeSkipped.test( file )
+                    && isRegularFile( file, attributes )
+                    && !isHidden( file, attributes ) )
             {
-                return true;
+                collectedFiles.add( file );
             }
+            return FileVisitResult.CONTINUE;
         }
-        return false;
+
+        private static boolean isRegularFile( Path file, BasicFileAttributes attributes )
+        {
+            // links are not followed by the walker, the target is checked only for links
+            return attributes.isRegularFile() || attributes.isSymbolicLink() && Files.isRegularFile( file );
+        }
+    }
+
+    private boolean isFilteredOutSubpath( Path path )
+    {
+        return filteredOutPaths.isExcludedSubpath( path );
     }
 
     private SortedMap<String, String> getMutableDependencies() throws IOException
@@ -765,10 +1114,65 @@ private DigestItem resolveArtifact( final Artifact dependencyArtifact,
         final Artifact resolved = result.getArtifacts().iterator().next();
 
         final HashAlgorithm algorithm = config.getHashFactory().createAlgorithm();
-        final String hash = algorithm.hash( resolved.getFile().toPath() );
+        final String hash = dependencyHashIndex.hash( algorithm, resolved.getFile().toPath() );
         return DtoUtils.createDigestedFile( resolved, hash );
     }
 
+    private static class InputsFingerprint
+    {
+
+        private final String value;
+        /**
+         * false if some input file is modified too recently to rely on its stat data in the next build
+         */
+        private final boolean stable;
+
+        InputsFingerprint( String value, boolean stable )
+        {
+            this.value = value;
+            this.stable = stable;
+        }
+    }
+
+    /**
+     * File path with precomputed key. Comparison of keys with {@link String#compareTo(String)} gives the same result as
+     * {@link PathIgnoringCaseComparator}: separators are unified and each char is folded the same way as
+     * {@link String#compareToIgnoreCase(String)} does
+     */
+    private static class InputFileKey
+    {
+
+        private final Path path;
+        private final String key;
+
+        InputFileKey( Path absolutePath )
+        {
+            this.path = absolutePath;
+            final String text = absolutePath.toString();
+            final char[] chars = new char[text.length()];
+            for ( int i = 0; i < chars.length; i++ )
+            {
+                char ch = text.charAt( i );
+                if ( ch == '\\' && File.separatorChar == '\\' )
+                {
+                    ch = '/';
+                }
+                chars[i] = Character.toLowerCase( Character.toUpperCase( ch ) );
+            }
+            this.key = new String( chars );
+        }
+
+        Path getPath()
+        {
+            return path;
+        }
+
+        String getKey()
+        {
+            return key;
+        }
+    }
+
     /**
      * PathIgnoringCaseComparator
      */
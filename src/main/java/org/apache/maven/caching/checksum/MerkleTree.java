@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.xml.build.DigestItem;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Merkle tree of input files. A directory hash covers sorted names and hashes of its files and subdirectories, so equal
+ * directory hashes prove equal subtrees and changed files could be located by inspecting mismatching directories only.
+ * Directories are identified by paths relative to the project base dir, {@link #ROOT} stands for the base dir
+ */
+public class MerkleTree
+{
+
+    public static final String ROOT = ".";
+
+    private final String rootHash;
+    private final List<DigestItem> directories;
+
+    private MerkleTree( String rootHash, List<DigestItem> directories )
+    {
+        this.rootHash = rootHash;
+        this.directories = directories;
+    }
+
+    /**
+     * @param files file digests with normalized relative paths, in any order
+     */
+    public static MerkleTree build( HashAlgorithm algorithm, List<DigestItem> files )
+    {
+        final Node root = new Node();
+        for ( DigestItem file : files )
+        {
+            final String[] names = StringUtils.split( file.getValue(), '/' );
+            Node node = root;
+            for ( int i = 0; i < names.length - 1; i++ )
+            {
+                node = node.directories.computeIfAbsent( names[i], name -> new Node() );
+            }
+            node.files.put( names[names.length - 1], file.getHash() );
+        }
+        final List<DigestItem> directories = new ArrayList<>();
+        final String rootHash = hash( algorithm, root, ROOT, directories );
+        return new MerkleTree( rootHash, Collections.unmodifiableList( directories ) );
+    }
+
+    /**
+     * Directories are listed in depth first order, root first
+     */
+    private static String hash( HashAlgorithm algorithm, Node node, String path, List<DigestItem> directories )
+    {
+        // reserve position of the directory to list it before subdirectories
+        final int index = directories.size();
+        directories.add( null );
+
+        final StringBuilder entries = new StringBuilder();
+        for ( Map.Entry<String, Node> entry : node.directories.entrySet() )
+        {
+            final String childPath = ROOT.equals( path ) ? entry.getKey() : path + '/' + entry.getKey();
+            final String childHash = hash( algorithm, entry.getValue(), childPath, directories );
+            entries.append( "d " ).append( entry.getKey() ).append( ' ' ).append( childHash ).append( '\n' );
+        }
+        for ( Map.Entry<String, String> entry : node.files.entrySet() )
+        {
+            entries.append( "f " ).append( entry.getKey() ).append( ' ' ).append( entry.getValue() ).append( '\n' );
+        }
+        final String hash = algorithm.hash( entries.toString().getBytes( UTF_8 ) );
+        directories.set( index, DigestUtils.directory( path, hash ) );
+        return hash;
+    }
+
+    public String getRootHash()
+    {
+        return rootHash;
+    }
+
+    public List<DigestItem> getDirectories()
+    {
+        return directories;
+    }
+
+    /**
+     * @return directory of the normalized file path
+     */
+    public static String parent( String path )
+    {
+        final int separator = path.lastIndexOf( '/' );
+        return separator > 0 ? path.substring( 0, separator ) : ROOT;
+    }
+
+    /**
+     * Directories which hashes are different or which are present in one tree only. As a changed directory changes
+     * hashes of all its parents, files outside of returned directories are equal in both trees
+     *
+     * @return changed directories or null if any of builds has no merkle tree recorded
+     */
+    public static Set<String> changedDirectories( List<DigestItem> current, List<DigestItem> baseline )
+    {
+        if ( current.isEmpty() || baseline.isEmpty() )
+        {
+            return null;
+        }
+        final Set<String> changed = new HashSet<>();
+        if ( Objects.equals( current.get( 0 ).getHash(), baseline.get( 0 ).getHash() ) )
+        {
+            return changed;
+        }
+        final Map<String, String> baselineHashes = new HashMap<>( baseline.size() * 2 );
+        for ( DigestItem directory : baseline )
+        {
+            baselineHashes.put( directory.getValue(), directory.getHash() );
+        }
+        for ( DigestItem directory : current )
+        {
+            final String baselineHash = baselineHashes.remove( directory.getValue() );
+            if ( !directory.getHash().equals( baselineHash ) )
+            {
+                changed.add( directory.getValue() );
+            }
+        }
+        changed.addAll( baselineHashes.keySet() );
+        return changed;
+    }
+
+    private static class Node
+    {
+
+        private final SortedMap<String, Node> directories = new TreeMap<>();
+        private final SortedMap<String, String> files = new TreeMap<>();
+    }
+}
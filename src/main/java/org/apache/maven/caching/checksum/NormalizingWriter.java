@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Replaces search strings while writing, same as single pass of
+ * {@link org.apache.commons.lang3.StringUtils#replaceEach(String, String[], String[])}: text is scanned left to right
+ * and the first search string matching at a position wins. Only a tail shorter than the longest search string is held
+ * back between writes.
+ * <p>
+ * {@code replaceEachRepeatedly} would run another pass if replacements produce a search string, such output is reported
+ * by {@link #isReplacementRepeatable()} so the caller can fall back to in-memory replacement
+ */
+class NormalizingWriter extends Writer
+{
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    private final Writer out;
+    private final String[] searchList;
+    private final String[] replacementList;
+    private final int maxSearchLength;
+
+    /**
+     * Optional copy of normalized text
+     */
+    private final StringBuilder text;
+
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int length;
+
+    /**
+     * Recent normalized output, used to detect search strings produced by replacements
+     */
+    private final StringBuilder written = new StringBuilder();
+    private boolean repeatable;
+
+    NormalizingWriter( Writer out, String[] searchList, String[] replacementList, StringBuilder text )
+    {
+        this.out = out;
+        this.searchList = searchList;
+        this.replacementList = replacementList;
+        this.text = text;
+        int max = 1;
+        for ( String search : searchList )
+        {
+            max = Math.max( max, search.length() );
+        }
+        this.maxSearchLength = max;
+    }
+
+    boolean isReplacementRepeatable()
+    {
+        return repeatable;
+    }
+
+    @Override
+    public void write( char[] chars, int off, int len ) throws IOException
+    {
+        if ( length + len > buffer.length )
+        {
+            final char[] extended = new char[Math.max( buffer.length * 2, length + len )];
+            System.arraycopy( buffer, 0, extended, 0, length );
+            buffer = extended;
+        }
+        System.arraycopy( chars, off, buffer, length, len );
+        length += len;
+        if ( length >= INITIAL_CAPACITY )
+        {
+            replace( false );
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        replace( true );
+        checkWritten( true );
+        out.close();
+    }
+
+    /**
+     * @param end if true, all buffered chars are processed, otherwise chars which could start a match spanning into
+     *            next write are kept
+     */
+    private void replace( boolean end ) throws IOException
+    {
+        final int limit = end ? length : length - maxSearchLength + 1;
+        int position = 0;
+        int unchanged = 0;
+        while ( position < limit )
+        {
+            final int match = matchAt( position );
+            if ( match < 0 )
+            {
+                position++;
+                continue;
+            }
+            emit( buffer, unchanged, position - unchanged );
+            final String replacement = replacementList[match];
+            emit( replacement.toCharArray(), 0, replacement.length() );
+            position += searchList[match].length();
+            unchanged = position;
+        }
+        emit( buffer, unchanged, position - unchanged );
+        System.arraycopy( buffer, position, buffer, 0, length - position );
+        length -= position;
+    }
+
+    private int matchAt( int position )
+    {
+        final char c = buffer[position];
+        for ( int i = 0; i < searchList.length; i++ )
+        {
+            final String search = searchList[i];
+            if ( search.isEmpty() || search.charAt( 0 ) != c || position + search.length() > length )
+            {
+                continue;
+            }
+            int j = 1;
+            while ( j < search.length() && buffer[position + j] == search.charAt( j ) )
+            {
+                j++;
+            }
+            if ( j == search.length() )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void emit( char[] chars, int off, int len ) throws IOException
+    {
+        if ( len == 0 )
+        {
+            return;
+        }
+        out.write( chars, off, len );
+        if ( text != null )
+        {
+            text.append( chars, off, len );
+        }
+        if ( !repeatable )
+        {
+            written.append( chars, off, len );
+            if ( written.length() >= INITIAL_CAPACITY )
+            {
+                checkWritten( false );
+            }
+        }
+    }
+
+    private void checkWritten( boolean end )
+    {
+        for ( String search : searchList )
+        {
+            if ( !search.isEmpty() && written.indexOf( search ) >= 0 )
+            {
+                repeatable = true;
+                break;
+            }
+        }
+        // keep the tail which could be a prefix of a search string completed by next output
+        final int keep = end ? 0 : Math.min( written.length(), maxSearchLength - 1 );
+        written.delete( 0, written.length() - keep );
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precompiled excluded paths of a project input. Prefixes are stored in a trie of path name elements, so a subpath
+ * check costs one lookup per name element of the checked path regardless of the number of excludes. File names of
+ * excluded paths are kept in a hash set.
+ * <p>
+ * Path elements are compared with {@link Path#equals(Object)}, so matching follows {@link Path#startsWith(Path)}
+ * semantics of the file system (e.g. case insensitive on Windows).
+ */
+public class PathExclusions
+{
+
+    /**
+     * Tries keyed by path root, null key stands for relative paths
+     */
+    private final Map<Path, Node> roots = new HashMap<>();
+    private final Set<Path> fileNames = new HashSet<>();
+
+    public PathExclusions( Iterable<Path> excludedPaths )
+    {
+        for ( Path excluded : excludedPaths )
+        {
+            Node node = roots.computeIfAbsent( excluded.getRoot(), root -> new Node() );
+            for ( Path name : excluded )
+            {
+                node = node.child( name );
+            }
+            node.excluded = true;
+
+            final Path fileName = excluded.getFileName();
+            if ( fileName != null )
+            {
+                fileNames.add( fileName );
+            }
+        }
+    }
+
+    /**
+     * @return true if normalized path starts with any of excluded paths
+     */
+    public boolean isExcludedSubpath( Path path )
+    {
+        final Path normalized = path.normalize();
+        Node node = roots.get( normalized.getRoot() );
+        if ( node == null )
+        {
+            return false;
+        }
+        if ( node.excluded )
+        {
+            return true;
+        }
+        for ( Path name : normalized )
+        {
+            node = node.children != null ? node.children.get( name ) : null;
+            if ( node == null )
+            {
+                return false;
+            }
+            if ( node.excluded )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if file name of the entry equals file name of any of excluded paths
+     */
+    public boolean isExcludedFileName( Path entry )
+    {
+        final Path fileName = entry.getFileName();
+        return fileName != null && fileNames.contains( fileName );
+    }
+
+    private static class Node
+    {
+
+        private Map<Path, Node> children;
+        private boolean excluded;
+
+        Node child( Path name )
+        {
+            if ( children == null )
+            {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent( name, key -> new Node() );
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * BLAKE3 256 bit hash. Files are streamed, see {@link BLAKE3MM} for memory mapped variant. Content available as a
+ * whole (arrays and mapped files) is hashed as a tree, in parallel when called from the hashing executor
+ */
+public class BLAKE3 implements Hash.Factory
+{
+
+    private final String algorithm;
+    private final boolean mapped;
+
+    public BLAKE3()
+    {
+        this( "BLAKE3", false );
+    }
+
+    BLAKE3( String algorithm, boolean mapped )
+    {
+        this.algorithm = algorithm;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public String getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    @Override
+    public Hash.Algorithm algorithm()
+    {
+        return new Algorithm( mapped );
+    }
+
+    @Override
+    public Hash.Checksum checksum( int count )
+    {
+        return new IncrementalAlgorithm.Checksum( new Algorithm( false ) );
+    }
+
+    static class Algorithm extends IncrementalAlgorithm
+    {
+
+        private final Blake3Hash state = new Blake3Hash();
+
+        Algorithm( boolean mapped )
+        {
+            super( mapped );
+        }
+
+        @Override
+        byte[] hash( ByteBuffer content )
+        {
+            return Blake3Hash.hash( content );
+        }
+
+        @Override
+        public void reset()
+        {
+            state.reset();
+        }
+
+        @Override
+        public void update( ByteBuffer buffer )
+        {
+            state.update( buffer );
+        }
+
+        @Override
+        public byte[] digest()
+        {
+            return state.digest();
+        }
+    }
+}
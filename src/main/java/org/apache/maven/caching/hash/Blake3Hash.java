@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * BLAKE3 hash with 256 bit output (hash mode, no key). Content is hashed either incrementally or, when whole content
+ * is available, as a tree. Large subtrees are hashed in parallel only in the fork join pool of the calling task (the
+ * shared hashing executor), other callers hash sequentially and never spill into the common pool
+ */
+class Blake3Hash
+{
+
+    private static final int[] IV = {
+            0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19 };
+
+    private static final int[] MESSAGE_PERMUTATION = { 2, 6, 3, 10, 7, 0, 4, 13, 1, 11, 12, 5, 9, 14, 15, 8 };
+    private static final int ROUNDS = 7;
+    /**
+     * Message word indexes of each round, so permutation is not applied to the message between rounds
+     */
+    private static final int[][] SCHEDULE = new int[ROUNDS][16];
+
+    static
+    {
+        for ( int i = 0; i < 16; i++ )
+        {
+            SCHEDULE[0][i] = i;
+        }
+        for ( int round = 1; round < ROUNDS; round++ )
+        {
+            for ( int i = 0; i < 16; i++ )
+            {
+                SCHEDULE[round][i] = SCHEDULE[round - 1][MESSAGE_PERMUTATION[i]];
+            }
+        }
+    }
+
+    private static final int CHUNK_START = 1;
+    private static final int CHUNK_END = 2;
+    private static final int PARENT = 4;
+    private static final int ROOT = 8;
+
+    private static final int BLOCK_LEN = 64;
+    private static final int CHUNK_LEN = 1024;
+    private static final int MAX_DEPTH = 54;
+    /**
+     * Subtrees smaller than this are hashed in the current thread
+     */
+    static final int PARALLEL_THRESHOLD = 512 * 1024;
+
+    private final int[] chunkCv = new int[8];
+    private final int[] cvStack = new int[MAX_DEPTH * 8];
+    private final int[] words = new int[16];
+    private final int[] cv = new int[8];
+    private final byte[] block = new byte[BLOCK_LEN];
+    private final ByteBuffer blockBuffer = ByteBuffer.wrap( block ).order( ByteOrder.LITTLE_ENDIAN );
+    private long chunkCounter;
+    private int blocksCompressed;
+    private int blockLen;
+    private int stackSize;
+
+    Blake3Hash()
+    {
+        reset();
+    }
+
+    void reset()
+    {
+        System.arraycopy( IV, 0, chunkCv, 0, 8 );
+        chunkCounter = 0;
+        blocksCompressed = 0;
+        blockLen = 0;
+        stackSize = 0;
+    }
+
+    /**
+     * Consumes all remaining bytes of the buffer
+     */
+    void update( ByteBuffer input )
+    {
+        while ( input.hasRemaining() )
+        {
+            // a block or a chunk is compressed only if more input follows it, the last one is processed by digest
+            if ( blocksCompressed * BLOCK_LEN + blockLen == CHUNK_LEN )
+            {
+                loadBlock();
+                compress( chunkCv, words, chunkCounter, BLOCK_LEN, CHUNK_END, cv );
+                addChunkCv( cv, ++chunkCounter );
+                System.arraycopy( IV, 0, chunkCv, 0, 8 );
+                blocksCompressed = 0;
+                blockLen = 0;
+            }
+            else if ( blockLen == BLOCK_LEN )
+            {
+                loadBlock();
+                compress( chunkCv, words, chunkCounter, BLOCK_LEN, blocksCompressed == 0 ? CHUNK_START : 0,
+                        chunkCv );
+                blocksCompressed++;
+                blockLen = 0;
+            }
+            final int length = Math.min( BLOCK_LEN - blockLen, input.remaining() );
+            input.get( block, blockLen, length );
+            blockLen += length;
+        }
+    }
+
+    /**
+     * Completes hashing on a copy of the state, so it could be updated further
+     */
+    byte[] digest()
+    {
+        Arrays.fill( block, blockLen, BLOCK_LEN, ( byte ) 0 );
+        loadBlock();
+        final int flags = ( blocksCompressed == 0 ? CHUNK_START : 0 ) | CHUNK_END;
+        if ( stackSize == 0 )
+        {
+            compress( chunkCv, words, chunkCounter, blockLen, flags | ROOT, cv );
+            return toBytes( cv );
+        }
+        compress( chunkCv, words, chunkCounter, blockLen, flags, cv );
+        for ( int i = stackSize - 1; i > 0; i-- )
+        {
+            parent( cvStack, i * 8, cv, 0, 0, cv );
+        }
+        parent( cvStack, 0, cv, 0, ROOT, cv );
+        return toBytes( cv );
+    }
+
+    private void loadBlock()
+    {
+        for ( int i = 0; i < 16; i++ )
+        {
+            words[i] = blockBuffer.getInt( i * 4 );
+        }
+    }
+
+    /**
+     * Merges completed subtrees, their number is the number of trailing zero bits of total chunks count
+     */
+    private void addChunkCv( int[] chunk, long totalChunks )
+    {
+        while ( ( totalChunks & 1 ) == 0 )
+        {
+            stackSize--;
+            parent( cvStack, stackSize * 8, chunk, 0, 0, chunk );
+            totalChunks >>= 1;
+        }
+        System.arraycopy( chunk, 0, cvStack, stackSize * 8, 8 );
+        stackSize++;
+    }
+
+    /**
+     * Hashes remaining bytes of the buffer as a tree, buffer position is not changed
+     */
+    static byte[] hash( ByteBuffer content )
+    {
+        final ByteBuffer data = content.slice().order( ByteOrder.LITTLE_ENDIAN );
+        final int length = data.remaining();
+        final int[] out = new int[8];
+        if ( length <= CHUNK_LEN )
+        {
+            chunk( data, 0, length, 0, ROOT, out );
+        }
+        else
+        {
+            final int[] children = new int[16];
+            children( data, 0, length, 0, children );
+            parent( children, 0, children, 8, ROOT, out );
+        }
+        return toBytes( out );
+    }
+
+    /**
+     * @return length of the left subtree: the largest power of 2 number of chunks leaving at least one byte in the
+     *         right subtree
+     */
+    private static int leftLength( int length )
+    {
+        return Integer.highestOneBit( ( length - 1 ) / CHUNK_LEN ) * CHUNK_LEN;
+    }
+
+    /**
+     * Chaining value of the subtree or of the single chunk
+     */
+    private static void subtree( ByteBuffer data, int offset, int length, long counter, int[] out, int outOffset )
+    {
+        final int[] cv = new int[8];
+        if ( length <= CHUNK_LEN )
+        {
+            chunk( data, offset, length, counter, 0, cv );
+        }
+        else
+        {
+            final int[] children = new int[16];
+            children( data, offset, length, counter, children );
+            parent( children, 0, children, 8, 0, cv );
+        }
+        System.arraycopy( cv, 0, out, outOffset, 8 );
+    }
+
+    /**
+     * Chaining values of left and right subtrees of content larger than a chunk. Right subtree of large content is
+     * forked to the pool of the current task while the current thread hashes the left one
+     */
+    private static void children( ByteBuffer data, int offset, int length, long counter, int[] children )
+    {
+        final int leftLength = leftLength( length );
+        final int rightOffset = offset + leftLength;
+        final long rightCounter = counter + leftLength / CHUNK_LEN;
+        if ( length < PARALLEL_THRESHOLD || !ForkJoinTask.inForkJoinPool() )
+        {
+            subtree( data, offset, leftLength, counter, children, 0 );
+            subtree( data, rightOffset, length - leftLength, rightCounter, children, 8 );
+            return;
+        }
+        final Subtree right = new Subtree( data, rightOffset, length - leftLength, rightCounter );
+        right.fork();
+        subtree( data, offset, leftLength, counter, children, 0 );
+        System.arraycopy( right.join(), 0, children, 8, 8 );
+    }
+
+    /**
+     * Chaining value of the chunk or, with root flag, the hash of single chunk content
+     */
+    private static void chunk( ByteBuffer data, int offset, int length, long counter, int rootFlag, int[] out )
+    {
+        final int[] words = new int[16];
+        System.arraycopy( IV, 0, out, 0, 8 );
+        int flags = CHUNK_START;
+        int position = offset;
+        final int end = offset + length;
+        while ( end - position > BLOCK_LEN )
+        {
+            for ( int i = 0; i < 16; i++ )
+            {
+                words[i] = data.getInt( position + i * 4 );
+            }
+            compress( out, words, counter, BLOCK_LEN, flags, out );
+            flags = 0;
+            position += BLOCK_LEN;
+        }
+        // the last block, zero padded
+        Arrays.fill( words, 0 );
+        for ( int i = 0; position + i < end; i++ )
+        {
+            words[i >> 2] |= ( data.get( position + i ) & 0xFF ) << ( ( i & 3 ) << 3 );
+        }
+        compress( out, words, counter, end - position, flags | CHUNK_END | rootFlag, out );
+    }
+
+    private static void parent( int[] left, int leftOffset, int[] right, int rightOffset, int rootFlag, int[] out )
+    {
+        final int[] words = new int[16];
+        System.arraycopy( left, leftOffset, words, 0, 8 );
+        System.arraycopy( right, rightOffset, words, 8, 8 );
+        compress( IV, words, 0, BLOCK_LEN, PARENT | rootFlag, out );
+    }
+
+    /**
+     * Compression function truncated to 8 words: chaining value or the root hash. Output may be the input cv
+     */
+    private static void compress( int[] cv, int[] m, long counter, int blockLen, int flags, int[] out )
+    {
+        int v0 = cv[0];
+        int v1 = cv[1];
+        int v2 = cv[2];
+        int v3 = cv[3];
+        int v4 = cv[4];
+        int v5 = cv[5];
+        int v6 = cv[6];
+        int v7 = cv[7];
+        int v8 = IV[0];
+        int v9 = IV[1];
+        int v10 = IV[2];
+        int v11 = IV[3];
+        int v12 = ( int ) counter;
+        int v13 = ( int ) ( counter >>> 32 );
+        int v14 = blockLen;
+        int v15 = flags;
+        for ( int round = 0; round < ROUNDS; round++ )
+        {
+            final int[] s = SCHEDULE[round];
+            // columns
+            v0 += v4 + m[s[0]];
+            v12 = Integer.rotateRight( v12 ^ v0, 16 );
+            v8 += v12;
+            v4 = Integer.rotateRight( v4 ^ v8, 12 );
+            v0 += v4 + m[s[1]];
+            v12 = Integer.rotateRight( v12 ^ v0, 8 );
+            v8 += v12;
+            v4 = Integer.rotateRight( v4 ^ v8, 7 );
+
+            v1 += v5 + m[s[2]];
+            v13 = Integer.rotateRight( v13 ^ v1, 16 );
+            v9 += v13;
+            v5 = Integer.rotateRight( v5 ^ v9, 12 );
+            v1 += v5 + m[s[3]];
+            v13 = Integer.rotateRight( v13 ^ v1, 8 );
+            v9 += v13;
+            v5 = Integer.rotateRight( v5 ^ v9, 7 );
+
+            v2 += v6 + m[s[4]];
+            v14 = Integer.rotateRight( v14 ^ v2, 16 );
+            v10 += v14;
+            v6 = Integer.rotateRight( v6 ^ v10, 12 );
+            v2 += v6 + m[s[5]];
+            v14 = Integer.rotateRight( v14 ^ v2, 8 );
+            v10 += v14;
+            v6 = Integer.rotateRight( v6 ^ v10, 7 );
+
+            v3 += v7 + m[s[6]];
+            v15 = Integer.rotateRight( v15 ^ v3, 16 );
+            v11 += v15;
+            v7 = Integer.rotateRight( v7 ^ v11, 12 );
+            v3 += v7 + m[s[7]];
+            v15 = Integer.rotateRight( v15 ^ v3, 8 );
+            v11 += v15;
+            v7 = Integer.rotateRight( v7 ^ v11, 7 );
+
+            // diagonals
+            v0 += v5 + m[s[8]];
+            v15 = Integer.rotateRight( v15 ^ v0, 16 );
+            v10 += v15;
+            v5 = Integer.rotateRight( v5 ^ v10, 12 );
+            v0 += v5 + m[s[9]];
+            v15 = Integer.rotateRight( v15 ^ v0, 8 );
+            v10 += v15;
+            v5 = Integer.rotateRight( v5 ^ v10, 7 );
+
+            v1 += v6 + m[s[10]];
+            v12 = Integer.rotateRight( v12 ^ v1, 16 );
+            v11 += v12;
+            v6 = Integer.rotateRight( v6 ^ v11, 12 );
+            v1 += v6 + m[s[11]];
+            v12 = Integer.rotateRight( v12 ^ v1, 8 );
+            v11 += v12;
+            v6 = Integer.rotateRight( v6 ^ v11, 7 );
+
+            v2 += v7 + m[s[12]];
+            v13 = Integer.rotateRight( v13 ^ v2, 16 );
+            v8 += v13;
+            v7 = Integer.rotateRight( v7 ^ v8, 12 );
+            v2 += v7 + m[s[13]];
+            v13 = Integer.rotateRight( v13 ^ v2, 8 );
+            v8 += v13;
+            v7 = Integer.rotateRight( v7 ^ v8, 7 );
+
+            v3 += v4 + m[s[14]];
+            v14 = Integer.rotateRight( v14 ^ v3, 16 );
+            v9 += v14;
+            v4 = Integer.rotateRight( v4 ^ v9, 12 );
+            v3 += v4 + m[s[15]];
+            v14 = Integer.rotateRight( v14 ^ v3, 8 );
+            v9 += v14;
+            v4 = Integer.rotateRight( v4 ^ v9, 7 );
+        }
+        out[0] = v0 ^ v8;
+        out[1] = v1 ^ v9;
+        out[2] = v2 ^ v10;
+        out[3] = v3 ^ v11;
+        out[4] = v4 ^ v12;
+        out[5] = v5 ^ v13;
+        out[6] = v6 ^ v14;
+        out[7] = v7 ^ v15;
+    }
+
+    private static byte[] toBytes( int[] words )
+    {
+        final ByteBuffer bytes = ByteBuffer.allocate( 32 ).order( ByteOrder.LITTLE_ENDIAN );
+        for ( int i = 0; i < 8; i++ )
+        {
+            bytes.putInt( words[i] );
+        }
+        return bytes.array();
+    }
+
+    private static class Subtree extends RecursiveTask<int[]>
+    {
+
+        private final ByteBuffer data;
+        private final int offset;
+        private final int length;
+        private final long counter;
+
+        Subtree( ByteBuffer data, int offset, int length, long counter )
+        {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.counter = counter;
+        }
+
+        @Override
+        protected int[] compute()
+        {
+            final int[] cv = new int[8];
+            subtree( data, offset, length, counter, cv, 0 );
+            return cv;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads file content in fixed size chunks through thread local direct buffer, so files of any size are processed
+ * with constant memory. Buffers are referenced by their threads only and are released with the threads
+ */
+class ChunkedFileReader
+{
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial( () -> ByteBuffer.allocateDirect( CHUNK_SIZE ) );
+
+    /**
+     * @param consumer receives buffer ready for reading, must consume all remaining bytes
+     */
+    static void read( Path path, Consumer<ByteBuffer> consumer ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( path, READ ) )
+        {
+            read( channel, consumer );
+        }
+    }
+
+    /**
+     * Reads channel from the current position till the end, channel is not closed
+     */
+    static void read( FileChannel channel, Consumer<ByteBuffer> consumer ) throws IOException
+    {
+        final ByteBuffer buffer = BUFFER.get();
+        buffer.clear();
+        while ( channel.read( buffer ) != -1 )
+        {
+            buffer.flip();
+            consumer.accept( buffer );
+            buffer.clear();
+        }
+    }
+
+    private ChunkedFileReader()
+    {
+    }
+}
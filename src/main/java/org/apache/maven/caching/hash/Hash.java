@@ -19,6 +19,7 @@
 package org.apache.maven.caching.hash;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 /**
@@ -36,6 +37,18 @@
         byte[] hash( byte[] array );
 
         byte[] hash( Path path ) throws IOException;
+
+        /**
+         * Starts incremental hashing of content supplied by {@link #update(ByteBuffer)}
+         */
+        void reset();
+
+        void update( ByteBuffer buffer );
+
+        /**
+         * Completes incremental hashing
+         */
+        byte[] digest();
     }
 
     /**
@@ -19,6 +19,7 @@
 package org.apache.maven.caching.hash;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 
 /**
@@ -43,4 +44,26 @@ public String hash( byte[] bytes )
     {
         return HexUtils.encode( algorithm.hash( bytes ) );
     }
+
+    /**
+     * Hashes content written by the writer without buffering it, equivalent to {@link #hash(byte[])} of written bytes
+     */
+    public String hash( ContentWriter writer ) throws IOException
+    {
+        algorithm.reset();
+        try ( OutputStream output = new HashOutputStream( algorithm ) )
+        {
+            writer.write( output );
+        }
+        return HexUtils.encode( algorithm.digest() );
+    }
+
+    /**
+     * ContentWriter
+     */
+    public interface ContentWriter
+    {
+
+        void write( OutputStream output ) throws IOException;
+    }
 }
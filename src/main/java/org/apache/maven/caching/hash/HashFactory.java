@@ -19,35 +19,36 @@
 package org.apache.maven.caching.hash;
 
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 
 /**
- * HashFactory
+ * Registry of hash algorithms. Built-in algorithms are available as constants, additional algorithms are discovered
+ * as {@link Hash.Factory} services ({@code META-INF/services/org.apache.maven.caching.hash.Hash$Factory}) of the
+ * extension class loader
  */
-public enum HashFactory
+public final class HashFactory
 {
 
-    SHA1( new SHA( "SHA-1" ) ),
-    SHA256( new SHA( "SHA-256" ) ),
-    SHA384( new SHA( "SHA-384" ) ),
-    SHA512( new SHA( "SHA-512" ) ),
-    XX( new XX() ),
-    XXMM( new XXMM() );
+    public static final HashFactory SHA1 = new HashFactory( new SHA( "SHA-1" ) );
+    public static final HashFactory SHA256 = new HashFactory( new SHA( "SHA-256" ) );
+    public static final HashFactory SHA384 = new HashFactory( new SHA( "SHA-384" ) );
+    public static final HashFactory SHA512 = new HashFactory( new SHA( "SHA-512" ) );
+    public static final HashFactory XX = new HashFactory( new XX() );
+    public static final HashFactory XXMM = new HashFactory( new XXMM() );
+    public static final HashFactory XXAUTO = new HashFactory( new XXAUTO() );
 
-    private static final Map<String, HashFactory> LOOKUP = new HashMap<>();
+    private static final Map<String, HashFactory> BUILT_IN = lookup( SHA1, SHA256, SHA384, SHA512, XX, XXMM, XXAUTO );
 
-    static
+    public static HashFactory of( String algorithm ) throws NoSuchAlgorithmException
     {
-        for ( HashFactory factory : HashFactory.values() )
+        HashFactory factory = BUILT_IN.get( algorithm );
+        if ( factory == null )
         {
-            LOOKUP.put( factory.getAlgorithm(), factory );
+            factory = Services.LOOKUP.get( algorithm );
         }
-    }
-
-    public static HashFactory of( String algorithm ) throws NoSuchAlgorithmException
-    {
-        final HashFactory factory = LOOKUP.get( algorithm );
         if ( factory == null )
         {
             throw new NoSuchAlgorithmException( algorithm );
@@ -55,9 +56,19 @@ public static HashFactory of( String algorithm ) throws NoSuchAlgorithmException
         return factory;
     }
 
+    private static Map<String, HashFactory> lookup( HashFactory... factories )
+    {
+        final Map<String, HashFactory> lookup = new HashMap<>();
+        for ( HashFactory factory : factories )
+        {
+            lookup.put( factory.getAlgorithm(), factory );
+        }
+        return Collections.unmodifiableMap( lookup );
+    }
+
     private final Hash.Factory factory;
 
-    HashFactory( Hash.Factory factory )
+    private HashFactory( Hash.Factory factory )
     {
         this.factory = factory;
     }
@@ -76,4 +87,32 @@ public HashChecksum createChecksum( int count )
     {
         return new HashChecksum( factory.algorithm(), factory.checksum( count ) );
     }
+
+    @Override
+    public String toString()
+    {
+        return getAlgorithm();
+    }
+
+    /**
+     * Service providers loaded on first lookup of not built-in algorithm. Providers can't replace built-in algorithms
+     */
+    private static class Services
+    {
+
+        private static final Map<String, HashFactory> LOOKUP;
+
+        static
+        {
+            final Map<String, HashFactory> lookup = new HashMap<>();
+            for ( Hash.Factory factory : ServiceLoader.load( Hash.Factory.class, HashFactory.class.getClassLoader() ) )
+            {
+                if ( !BUILT_IN.containsKey( factory.getAlgorithm() ) )
+                {
+                    lookup.putIfAbsent( factory.getAlgorithm(), new HashFactory( factory ) );
+                }
+            }
+            LOOKUP = Collections.unmodifiableMap( lookup );
+        }
+    }
 }
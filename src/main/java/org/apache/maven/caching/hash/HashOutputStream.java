@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Feeds written bytes to incremental hashing of the algorithm
+ */
+class HashOutputStream extends OutputStream
+{
+
+    private final Hash.Algorithm algorithm;
+
+    HashOutputStream( Hash.Algorithm algorithm )
+    {
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public void write( int b )
+    {
+        algorithm.update( ByteBuffer.wrap( new byte[] { ( byte ) b } ) );
+    }
+
+    @Override
+    public void write( byte[] bytes, int off, int len )
+    {
+        algorithm.update( ByteBuffer.wrap( bytes, off, len ) );
+    }
+}
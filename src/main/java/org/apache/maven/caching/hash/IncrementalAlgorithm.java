@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Algorithm built on incremental hash state. Files are streamed in chunks or, in mapped mode, hashed from memory
+ * mapped buffer in one pass
+ */
+abstract class IncrementalAlgorithm implements Hash.Algorithm
+{
+
+    private final boolean mapped;
+
+    IncrementalAlgorithm( boolean mapped )
+    {
+        this.mapped = mapped;
+    }
+
+    @Override
+    public byte[] hash( byte[] array )
+    {
+        return hash( ByteBuffer.wrap( array ) );
+    }
+
+    @Override
+    public byte[] hash( Path path ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( path, READ ) )
+        {
+            // mapped buffer is limited to 2GB, larger files are streamed
+            if ( mapped && channel.size() <= Integer.MAX_VALUE )
+            {
+                try ( CloseableBuffer buffer = CloseableBuffer.mappedBuffer( channel, READ_ONLY ) )
+                {
+                    return hash( buffer.getBuffer() );
+                }
+            }
+            reset();
+            ChunkedFileReader.read( channel, this::update );
+            return digest();
+        }
+    }
+
+    /**
+     * Hashes remaining bytes of the buffer, algorithms with faster processing of whole content override it
+     */
+    byte[] hash( ByteBuffer content )
+    {
+        reset();
+        update( content );
+        return digest();
+    }
+
+    /**
+     * Checksum of concatenated hashes, computed incrementally without buffering hashes
+     */
+    static class Checksum implements Hash.Checksum
+    {
+
+        private final Hash.Algorithm algorithm;
+
+        Checksum( Hash.Algorithm algorithm )
+        {
+            this.algorithm = algorithm;
+            algorithm.reset();
+        }
+
+        @Override
+        public void update( byte[] hash )
+        {
+            algorithm.update( ByteBuffer.wrap( hash ) );
+        }
+
+        @Override
+        public byte[] digest()
+        {
+            return algorithm.digest();
+        }
+    }
+}
@@ -19,7 +19,7 @@
 package org.apache.maven.caching.hash;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 
@@ -76,7 +76,27 @@ public byte[] hash( byte[] array )
         @Override
         public byte[] hash( Path path ) throws IOException
         {
-            return hash( Files.readAllBytes( path ) );
+            digest.reset();
+            ChunkedFileReader.read( path, digest::update );
+            return digest.digest();
+        }
+
+        @Override
+        public void reset()
+        {
+            digest.reset();
+        }
+
+        @Override
+        public void update( ByteBuffer buffer )
+        {
+            digest.update( buffer );
+        }
+
+        @Override
+        public byte[] digest()
+        {
+            return digest.digest();
         }
     }
 
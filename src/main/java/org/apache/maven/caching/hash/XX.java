@@ -20,10 +20,12 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import net.openhft.hashing.LongHashFunction;
 
+import static java.nio.file.StandardOpenOption.READ;
+
 /**
  * XX
  */
@@ -59,6 +61,8 @@ static int capacity( int count )
     static class Algorithm implements Hash.Algorithm
     {
 
+        private final XXHash64 state = new XXHash64();
+
         @Override
         public byte[] hash( byte[] array )
         {
@@ -68,7 +72,35 @@ public byte[] hash( byte[] array )
         @Override
         public byte[] hash( Path path ) throws IOException
         {
-            return hash( Files.readAllBytes( path ) );
+            try ( FileChannel channel = FileChannel.open( path, READ ) )
+            {
+                return hash( channel );
+            }
+        }
+
+        byte[] hash( FileChannel channel ) throws IOException
+        {
+            state.reset();
+            ChunkedFileReader.read( channel, state::update );
+            return HexUtils.toByteArray( state.digest() );
+        }
+
+        @Override
+        public void reset()
+        {
+            state.reset();
+        }
+
+        @Override
+        public void update( ByteBuffer buffer )
+        {
+            state.update( buffer );
+        }
+
+        @Override
+        public byte[] digest()
+        {
+            return HexUtils.toByteArray( state.digest() );
         }
     }
 
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * XX hash with file reading strategy chosen by file size: small files are read into pooled heap buffer, medium files
+ * are streamed through thread local direct buffer and large files are memory mapped. Produces the same hashes as
+ * {@link XX}
+ */
+public class XXAUTO implements Hash.Factory
+{
+
+    public static final String HEAP_THRESHOLD_PROPERTY_NAME = "remote.cache.hash.heapThreshold";
+    public static final String MMAP_THRESHOLD_PROPERTY_NAME = "remote.cache.hash.mmapThreshold";
+
+    static final long DEFAULT_HEAP_THRESHOLD = 64 * 1024;
+    static final long DEFAULT_MMAP_THRESHOLD = 8 * 1024 * 1024;
+
+    /**
+     * Files up to this size are read into reused thread local array, larger files on heap into array per call
+     */
+    static final int MAX_REUSED_HEAP_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> HEAP_BUFFER =
+            ThreadLocal.withInitial( () -> new byte[MAX_REUSED_HEAP_BUFFER] );
+
+    @Override
+    public String getAlgorithm()
+    {
+        return "XXAUTO";
+    }
+
+    @Override
+    public Hash.Algorithm algorithm()
+    {
+        return new Algorithm( Long.getLong( HEAP_THRESHOLD_PROPERTY_NAME, DEFAULT_HEAP_THRESHOLD ),
+                Long.getLong( MMAP_THRESHOLD_PROPERTY_NAME, DEFAULT_MMAP_THRESHOLD ) );
+    }
+
+    @Override
+    public Hash.Checksum checksum( int count )
+    {
+        // checksums are created on pool threads, thread local buffers would stay with retired threads
+        return new XX.Checksum( ByteBuffer.allocate( XX.capacity( count ) ) );
+    }
+
+    static class Algorithm extends XX.Algorithm
+    {
+
+        private final long heapThreshold;
+        private final long mmapThreshold;
+
+        /**
+         * @param heapThreshold files up to this size (inclusive) are read on heap
+         * @param mmapThreshold files of this size and larger are memory mapped
+         */
+        Algorithm( long heapThreshold, long mmapThreshold )
+        {
+            this.heapThreshold = Math.min( heapThreshold, Integer.MAX_VALUE );
+            this.mmapThreshold = mmapThreshold;
+        }
+
+        @Override
+        public byte[] hash( Path path ) throws IOException
+        {
+            try ( FileChannel channel = FileChannel.open( path, READ ) )
+            {
+                final long size = channel.size();
+                if ( size <= heapThreshold )
+                {
+                    return HexUtils.toByteArray( hashOnHeap( channel, ( int ) size ) );
+                }
+                // mapped buffer is limited to 2GB, larger files are streamed
+                if ( size >= mmapThreshold && size <= Integer.MAX_VALUE )
+                {
+                    try ( CloseableBuffer buffer = CloseableBuffer.mappedBuffer( channel, READ_ONLY ) )
+                    {
+                        return HexUtils.toByteArray( XX.INSTANCE.hashBytes( buffer.getBuffer() ) );
+                    }
+                }
+                return super.hash( channel );
+            }
+        }
+
+        private static long hashOnHeap( FileChannel channel, int size ) throws IOException
+        {
+            // buffers sized by configurable threshold are not kept by threads
+            final byte[] array = size <= MAX_REUSED_HEAP_BUFFER ? HEAP_BUFFER.get() : new byte[size];
+            final ByteBuffer buffer = ByteBuffer.wrap( array, 0, size );
+            int read = 0;
+            while ( buffer.hasRemaining() && read != -1 )
+            {
+                read = channel.read( buffer );
+            }
+            return XX.INSTANCE.hashBytes( array, 0, buffer.position() );
+        }
+    }
+}
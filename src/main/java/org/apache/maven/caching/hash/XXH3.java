@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * XXH3 64 bit hash (xxHash 0.8, zero seed). Files are streamed, see {@link XXH3MM} for memory mapped variant and
+ * {@link XXH128} for 128 bit hash
+ */
+public class XXH3 implements Hash.Factory
+{
+
+    private final String algorithm;
+    private final boolean wide;
+    private final boolean mapped;
+
+    public XXH3()
+    {
+        this( "XXH3", false, false );
+    }
+
+    XXH3( String algorithm, boolean wide, boolean mapped )
+    {
+        this.algorithm = algorithm;
+        this.wide = wide;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public String getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    @Override
+    public Hash.Algorithm algorithm()
+    {
+        return new Algorithm( wide, mapped );
+    }
+
+    @Override
+    public Hash.Checksum checksum( int count )
+    {
+        return new IncrementalAlgorithm.Checksum( new Algorithm( wide, false ) );
+    }
+
+    static class Algorithm extends IncrementalAlgorithm
+    {
+
+        private final XXHash3 state = new XXHash3();
+        private final boolean wide;
+
+        Algorithm( boolean wide, boolean mapped )
+        {
+            super( mapped );
+            this.wide = wide;
+        }
+
+        @Override
+        public void reset()
+        {
+            state.reset();
+        }
+
+        @Override
+        public void update( ByteBuffer buffer )
+        {
+            state.update( buffer );
+        }
+
+        /**
+         * 128 bit hash is in canonical representation: big endian high part followed by low part
+         */
+        @Override
+        public byte[] digest()
+        {
+            if ( !wide )
+            {
+                return HexUtils.toByteArray( state.digest64() );
+            }
+            final long[] hash = state.digest128();
+            return ByteBuffer.allocate( 16 ).putLong( hash[0] ).putLong( hash[1] ).array();
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Incremental XXH3 (64 and 128 bit variants) with zero seed and default secret. Produces the same hashes as the
+ * reference implementation of xxHash 0.8 for any split of input into updates
+ */
+class XXHash3
+{
+
+    private static final long PRIME32_1 = 0x9E3779B1L;
+    private static final long PRIME32_2 = 0x85EBCA77L;
+    private static final long PRIME32_3 = 0xC2B2AE3DL;
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+    private static final long PRIME_MX1 = 0x165667919E3779F9L;
+    private static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+    private static final ByteBuffer SECRET = ByteBuffer.wrap( HexUtils.decode(
+            "b8fe6c3923a44bbe7c01812cf721ad1cded46de9839097db7240a4a4b7b3671f"
+                    + "cb79e64eccc0e578825ad07dccff7221b8084674f743248ee03590e6813a264c"
+                    + "3c2852bb91c300cb88d0658b1b532ea371644897a20df94e3819ef46a9deacd8"
+                    + "a8fa763fe39c343ff9dcbbc7c70b4f1d8a51e04bcdb45931c89f7ec9d9787364"
+                    + "eac5ac8334d3ebc3c581a0fffa1363eb170ddd51b7f0da49d316552629d4689e"
+                    + "2b16be587d47a1fc8ff8b8d17ad031ce45cb3a8f95160428afd7fbcabb4b407e" ) )
+            .order( ByteOrder.LITTLE_ENDIAN );
+
+    private static final int SECRET_SIZE = 192;
+    private static final int STRIPE_LEN = 64;
+    private static final int STRIPES_PER_BLOCK = ( SECRET_SIZE - STRIPE_LEN ) / 8;
+    private static final int MIDSIZE_MAX = 240;
+    private static final int BUFFER_SIZE = 256;
+
+    private final long[] acc = new long[8];
+    private final long[] digestAcc = new long[8];
+    private final ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE ).order( ByteOrder.LITTLE_ENDIAN );
+    private final ByteBuffer lastStripe = ByteBuffer.allocate( STRIPE_LEN ).order( ByteOrder.LITTLE_ENDIAN );
+    private int buffered;
+    private int stripesSoFar;
+    private long totalLength;
+
+    XXHash3()
+    {
+        reset();
+    }
+
+    void reset()
+    {
+        acc[0] = PRIME32_3;
+        acc[1] = PRIME64_1;
+        acc[2] = PRIME64_2;
+        acc[3] = PRIME64_3;
+        acc[4] = PRIME64_4;
+        acc[5] = PRIME32_2;
+        acc[6] = PRIME64_5;
+        acc[7] = PRIME32_1;
+        buffered = 0;
+        stripesSoFar = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Consumes all remaining bytes of the buffer
+     */
+    void update( ByteBuffer input )
+    {
+        int length = input.remaining();
+        totalLength += length;
+        if ( buffered + length <= BUFFER_SIZE )
+        {
+            input.get( buffer.array(), buffered, length );
+            buffered += length;
+            return;
+        }
+
+        // a stripe is consumed only if more input follows it, the last stripe is processed by digest
+        if ( buffered > 0 )
+        {
+            final int load = BUFFER_SIZE - buffered;
+            input.get( buffer.array(), buffered, load );
+            for ( int offset = 0; offset < BUFFER_SIZE; offset += STRIPE_LEN )
+            {
+                consumeStripe( acc, buffer, offset );
+            }
+            buffered = 0;
+        }
+        if ( input.remaining() > BUFFER_SIZE )
+        {
+            final ByteBuffer data = input.slice().order( ByteOrder.LITTLE_ENDIAN );
+            int offset = 0;
+            while ( data.remaining() - offset > BUFFER_SIZE )
+            {
+                consumeStripe( acc, data, offset );
+                offset += STRIPE_LEN;
+            }
+            input.position( input.position() + offset );
+        }
+        length = input.remaining();
+        input.get( buffer.array(), 0, length );
+        buffered = length;
+    }
+
+    long digest64()
+    {
+        if ( totalLength <= MIDSIZE_MAX )
+        {
+            return hashShort64( buffer, ( int ) totalLength );
+        }
+        final long[] state = digestLong();
+        return mergeAccs( state, 11, totalLength * PRIME64_1 );
+    }
+
+    /**
+     * @return high and low 64 bits of the hash
+     */
+    long[] digest128()
+    {
+        if ( totalLength <= MIDSIZE_MAX )
+        {
+            return hashShort128( buffer, ( int ) totalLength );
+        }
+        final long[] state = digestLong();
+        final long low = mergeAccs( state, 11, totalLength * PRIME64_1 );
+        final long high = mergeAccs( state, SECRET_SIZE - STRIPE_LEN - 11, ~( totalLength * PRIME64_2 ) );
+        return new long[] { high, low };
+    }
+
+    /**
+     * Processes buffered stripes and the last stripe on a copy of accumulators, so the state could be updated further
+     */
+    private long[] digestLong()
+    {
+        System.arraycopy( acc, 0, digestAcc, 0, acc.length );
+        final int savedStripes = stripesSoFar;
+        final int stripes = ( buffered - 1 ) / STRIPE_LEN;
+        for ( int i = 0; i < stripes; i++ )
+        {
+            consumeStripe( digestAcc, buffer, i * STRIPE_LEN );
+        }
+        stripesSoFar = savedStripes;
+
+        if ( buffered >= STRIPE_LEN )
+        {
+            accumulate512( digestAcc, buffer, buffered - STRIPE_LEN, SECRET_SIZE - STRIPE_LEN - 7 );
+        }
+        else
+        {
+            // the last stripe spans tail of previously consumed buffer and currently buffered bytes
+            final int catchup = STRIPE_LEN - buffered;
+            System.arraycopy( buffer.array(), BUFFER_SIZE - catchup, lastStripe.array(), 0, catchup );
+            System.arraycopy( buffer.array(), 0, lastStripe.array(), catchup, buffered );
+            accumulate512( digestAcc, lastStripe, 0, SECRET_SIZE - STRIPE_LEN - 7 );
+        }
+        return digestAcc;
+    }
+
+    private void consumeStripe( long[] state, ByteBuffer data, int offset )
+    {
+        accumulate512( state, data, offset, stripesSoFar * 8 );
+        if ( ++stripesSoFar == STRIPES_PER_BLOCK )
+        {
+            scramble( state );
+            stripesSoFar = 0;
+        }
+    }
+
+    private static void accumulate512( long[] state, ByteBuffer data, int offset, int secretOffset )
+    {
+        for ( int i = 0; i < 8; i++ )
+        {
+            final long value = data.getLong( offset + 8 * i );
+            final long key = value ^ SECRET.getLong( secretOffset + 8 * i );
+            state[i ^ 1] += value;
+            state[i] += ( key & 0xFFFFFFFFL ) * ( key >>> 32 );
+        }
+    }
+
+    private static void scramble( long[] state )
+    {
+        for ( int i = 0; i < 8; i++ )
+        {
+            long value = state[i];
+            value ^= value >>> 47;
+            value ^= SECRET.getLong( SECRET_SIZE - STRIPE_LEN + 8 * i );
+            state[i] = value * PRIME32_1;
+        }
+    }
+
+    private static long mergeAccs( long[] state, int secretOffset, long start )
+    {
+        long result = start;
+        for ( int i = 0; i < 4; i++ )
+        {
+            result += mulFold64( state[2 * i] ^ SECRET.getLong( secretOffset + 16 * i ),
+                    state[2 * i + 1] ^ SECRET.getLong( secretOffset + 16 * i + 8 ) );
+        }
+        return avalanche( result );
+    }
+
+    private static long hashShort64( ByteBuffer data, int length )
+    {
+        if ( length <= 16 )
+        {
+            if ( length > 8 )
+            {
+                final long bitflip1 = SECRET.getLong( 24 ) ^ SECRET.getLong( 32 );
+                final long bitflip2 = SECRET.getLong( 40 ) ^ SECRET.getLong( 48 );
+                final long low = data.getLong( 0 ) ^ bitflip1;
+                final long high = data.getLong( length - 8 ) ^ bitflip2;
+                return avalanche( length + Long.reverseBytes( low ) + high + mulFold64( low, high ) );
+            }
+            if ( length >= 4 )
+            {
+                final long input1 = data.getInt( 0 ) & 0xFFFFFFFFL;
+                final long input2 = data.getInt( length - 4 ) & 0xFFFFFFFFL;
+                final long bitflip = SECRET.getLong( 8 ) ^ SECRET.getLong( 16 );
+                return rrmxmx( ( input2 + ( input1 << 32 ) ) ^ bitflip, length );
+            }
+            if ( length > 0 )
+            {
+                final int combined = ( ( data.get( 0 ) & 0xFF ) << 16 ) | ( ( data.get( length >> 1 ) & 0xFF ) << 24 )
+                        | ( data.get( length - 1 ) & 0xFF ) | ( length << 8 );
+                final long bitflip = ( SECRET.getInt( 0 ) ^ SECRET.getInt( 4 ) ) & 0xFFFFFFFFL;
+                return xxh64Avalanche( ( combined & 0xFFFFFFFFL ) ^ bitflip );
+            }
+            return xxh64Avalanche( SECRET.getLong( 56 ) ^ SECRET.getLong( 64 ) );
+        }
+
+        long acc = length * PRIME64_1;
+        if ( length <= 128 )
+        {
+            if ( length > 32 )
+            {
+                if ( length > 64 )
+                {
+                    if ( length > 96 )
+                    {
+                        acc += mix16( data, 48, 96 );
+                        acc += mix16( data, length - 64, 112 );
+                    }
+                    acc += mix16( data, 32, 64 );
+                    acc += mix16( data, length - 48, 80 );
+                }
+                acc += mix16( data, 16, 32 );
+                acc += mix16( data, length - 32, 48 );
+            }
+            acc += mix16( data, 0, 0 );
+            acc += mix16( data, length - 16, 16 );
+            return avalanche( acc );
+        }
+
+        for ( int i = 0; i < 8; i++ )
+        {
+            acc += mix16( data, 16 * i, 16 * i );
+        }
+        acc = avalanche( acc );
+        final int rounds = length / 16;
+        for ( int i = 8; i < rounds; i++ )
+        {
+            acc += mix16( data, 16 * i, 16 * ( i - 8 ) + 3 );
+        }
+        acc += mix16( data, length - 16, 136 - 17 );
+        return avalanche( acc );
+    }
+
+    private static long[] hashShort128( ByteBuffer data, int length )
+    {
+        if ( length <= 16 )
+        {
+            if ( length > 8 )
+            {
+                final long bitflipLow = SECRET.getLong( 32 ) ^ SECRET.getLong( 40 );
+                final long bitflipHigh = SECRET.getLong( 48 ) ^ SECRET.getLong( 56 );
+                final long inputLow = data.getLong( 0 );
+                long inputHigh = data.getLong( length - 8 );
+                final long x = inputLow ^ inputHigh ^ bitflipLow;
+                long mLow = x * PRIME64_1 + ( ( long ) ( length - 1 ) << 54 );
+                long mHigh = unsignedMultiplyHigh( x, PRIME64_1 );
+                inputHigh ^= bitflipHigh;
+                mHigh += inputHigh + ( inputHigh & 0xFFFFFFFFL ) * ( PRIME32_2 - 1 );
+                mLow ^= Long.reverseBytes( mHigh );
+                final long low = mLow * PRIME64_2;
+                final long high = unsignedMultiplyHigh( mLow, PRIME64_2 ) + mHigh * PRIME64_2;
+                return new long[] { avalanche( high ), avalanche( low ) };
+            }
+            if ( length >= 4 )
+            {
+                final long inputLow = data.getInt( 0 ) & 0xFFFFFFFFL;
+                final long inputHigh = data.getInt( length - 4 ) & 0xFFFFFFFFL;
+                final long bitflip = SECRET.getLong( 16 ) ^ SECRET.getLong( 24 );
+                final long keyed = ( inputLow + ( inputHigh << 32 ) ) ^ bitflip;
+                final long multiplier = PRIME64_1 + ( ( long ) length << 2 );
+                long low = keyed * multiplier;
+                long high = unsignedMultiplyHigh( keyed, multiplier );
+                high += low << 1;
+                low ^= high >>> 3;
+                low ^= low >>> 35;
+                low *= PRIME_MX2;
+                low ^= low >>> 28;
+                return new long[] { avalanche( high ), low };
+            }
+            if ( length > 0 )
+            {
+                final int combinedLow = ( ( data.get( 0 ) & 0xFF ) << 16 )
+                        | ( ( data.get( length >> 1 ) & 0xFF ) << 24 )
+                        | ( data.get( length - 1 ) & 0xFF ) | ( length << 8 );
+                final int combinedHigh = Integer.rotateLeft( Integer.reverseBytes( combinedLow ), 13 );
+                final long bitflipLow = ( SECRET.getInt( 0 ) ^ SECRET.getInt( 4 ) ) & 0xFFFFFFFFL;
+                final long bitflipHigh = ( SECRET.getInt( 8 ) ^ SECRET.getInt( 12 ) ) & 0xFFFFFFFFL;
+                return new long[] { xxh64Avalanche( ( combinedHigh & 0xFFFFFFFFL ) ^ bitflipHigh ),
+                        xxh64Avalanche( ( combinedLow & 0xFFFFFFFFL ) ^ bitflipLow ) };
+            }
+            return new long[] { xxh64Avalanche( SECRET.getLong( 80 ) ^ SECRET.getLong( 88 ) ),
+                    xxh64Avalanche( SECRET.getLong( 64 ) ^ SECRET.getLong( 72 ) ) };
+        }
+
+        final long[] acc = { length * PRIME64_1, 0 };
+        if ( length <= 128 )
+        {
+            if ( length > 32 )
+            {
+                if ( length > 64 )
+                {
+                    if ( length > 96 )
+                    {
+                        mix32( acc, data, 48, length - 64, 96 );
+                    }
+                    mix32( acc, data, 32, length - 48, 64 );
+                }
+                mix32( acc, data, 16, length - 32, 32 );
+            }
+            mix32( acc, data, 0, length - 16, 0 );
+        }
+        else
+        {
+            for ( int i = 0; i < 4; i++ )
+            {
+                mix32( acc, data, 32 * i, 32 * i + 16, 32 * i );
+            }
+            acc[0] = avalanche( acc[0] );
+            acc[1] = avalanche( acc[1] );
+            final int rounds = length / 32;
+            for ( int i = 4; i < rounds; i++ )
+            {
+                mix32( acc, data, 32 * i, 32 * i + 16, 3 + 32 * ( i - 4 ) );
+            }
+            mix32( acc, data, length - 16, length - 32, 136 - 17 - 16 );
+        }
+        final long low = acc[0] + acc[1];
+        final long high = acc[0] * PRIME64_1 + acc[1] * PRIME64_4 + length * PRIME64_2;
+        return new long[] { -avalanche( high ), avalanche( low ) };
+    }
+
+    private static long mix16( ByteBuffer data, int offset, int secretOffset )
+    {
+        return mulFold64( data.getLong( offset ) ^ SECRET.getLong( secretOffset ),
+                data.getLong( offset + 8 ) ^ SECRET.getLong( secretOffset + 8 ) );
+    }
+
+    private static void mix32( long[] acc, ByteBuffer data, int offset1, int offset2, int secretOffset )
+    {
+        acc[0] += mix16( data, offset1, secretOffset );
+        acc[0] ^= data.getLong( offset2 ) + data.getLong( offset2 + 8 );
+        acc[1] += mix16( data, offset2, secretOffset + 16 );
+        acc[1] ^= data.getLong( offset1 ) + data.getLong( offset1 + 8 );
+    }
+
+    private static long mulFold64( long a, long b )
+    {
+        return ( a * b ) ^ unsignedMultiplyHigh( a, b );
+    }
+
+    /**
+     * High 64 bits of unsigned 128 bit product (Java 8 lacks Math.multiplyHigh)
+     */
+    static long unsignedMultiplyHigh( long a, long b )
+    {
+        final long aLow = a & 0xFFFFFFFFL;
+        final long aHigh = a >>> 32;
+        final long bLow = b & 0xFFFFFFFFL;
+        final long bHigh = b >>> 32;
+        final long lowLow = aLow * bLow;
+        final long highLow = aHigh * bLow;
+        final long lowHigh = aLow * bHigh;
+        final long cross = ( lowLow >>> 32 ) + ( highLow & 0xFFFFFFFFL ) + lowHigh;
+        return aHigh * bHigh + ( highLow >>> 32 ) + ( cross >>> 32 );
+    }
+
+    private static long avalanche( long h )
+    {
+        h ^= h >>> 37;
+        h *= PRIME_MX1;
+        return h ^ ( h >>> 32 );
+    }
+
+    private static long rrmxmx( long h, long length )
+    {
+        h ^= Long.rotateLeft( h, 49 ) ^ Long.rotateLeft( h, 24 );
+        h *= PRIME_MX2;
+        h ^= ( h >>> 35 ) + length;
+        h *= PRIME_MX2;
+        return h ^ ( h >>> 28 );
+    }
+
+    private static long xxh64Avalanche( long h )
+    {
+        h ^= h >>> 33;
+        h *= PRIME64_2;
+        h ^= h >>> 29;
+        h *= PRIME64_3;
+        return h ^ ( h >>> 32 );
+    }
+}
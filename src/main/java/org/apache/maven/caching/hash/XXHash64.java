@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Incremental xxHash64 (seed 0). Produces the same values as {@link XX#INSTANCE} for the same content, but accepts
+ * content in chunks so files could be hashed with constant memory
+ */
+@SuppressWarnings( "checkstyle:MagicNumber" )
+class XXHash64
+{
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private static final int STRIPE = 32;
+
+    private final ByteBuffer stripe = ByteBuffer.allocate( STRIPE ).order( ByteOrder.LITTLE_ENDIAN );
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private long length;
+
+    XXHash64()
+    {
+        reset();
+    }
+
+    final void reset()
+    {
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+        length = 0;
+        stripe.clear();
+    }
+
+    /**
+     * Consumes all remaining bytes of the buffer. Buffer byte order is changed to little endian
+     */
+    void update( ByteBuffer input )
+    {
+        input.order( ByteOrder.LITTLE_ENDIAN );
+        length += input.remaining();
+
+        if ( stripe.position() > 0 )
+        {
+            while ( stripe.hasRemaining() && input.hasRemaining() )
+            {
+                stripe.put( input.get() );
+            }
+            if ( stripe.hasRemaining() )
+            {
+                return;
+            }
+            stripe.flip();
+            consumeStripe( stripe );
+            stripe.clear();
+        }
+
+        while ( input.remaining() >= STRIPE )
+        {
+            consumeStripe( input );
+        }
+
+        while ( input.hasRemaining() )
+        {
+            stripe.put( input.get() );
+        }
+    }
+
+    long digest()
+    {
+        long hash;
+        if ( length >= STRIPE )
+        {
+            hash = Long.rotateLeft( v1, 1 ) + Long.rotateLeft( v2, 7 ) + Long.rotateLeft( v3, 12 )
+                    + Long.rotateLeft( v4, 18 );
+            hash = mergeRound( hash, v1 );
+            hash = mergeRound( hash, v2 );
+            hash = mergeRound( hash, v3 );
+            hash = mergeRound( hash, v4 );
+        }
+        else
+        {
+            hash = PRIME5;
+        }
+        hash += length;
+
+        final ByteBuffer tail = ( ByteBuffer ) stripe.duplicate().flip();
+        tail.order( ByteOrder.LITTLE_ENDIAN );
+        while ( tail.remaining() >= 8 )
+        {
+            hash ^= round( 0, tail.getLong() );
+            hash = Long.rotateLeft( hash, 27 ) * PRIME1 + PRIME4;
+        }
+        if ( tail.remaining() >= 4 )
+        {
+            hash ^= ( tail.getInt() & 0xFFFFFFFFL ) * PRIME1;
+            hash = Long.rotateLeft( hash, 23 ) * PRIME2 + PRIME3;
+        }
+        while ( tail.hasRemaining() )
+        {
+            hash ^= ( tail.get() & 0xFF ) * PRIME5;
+            hash = Long.rotateLeft( hash, 11 ) * PRIME1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private void consumeStripe( ByteBuffer input )
+    {
+        v1 = round( v1, input.getLong() );
+        v2 = round( v2, input.getLong() );
+        v3 = round( v3, input.getLong() );
+        v4 = round( v4, input.getLong() );
+    }
+
+    private static long round( long acc, long input )
+    {
+        return Long.rotateLeft( acc + input * PRIME2, 31 ) * PRIME1;
+    }
+
+    private static long mergeRound( long acc, long value )
+    {
+        return ( acc ^ round( 0, value ) ) * PRIME1 + PRIME4;
+    }
+}
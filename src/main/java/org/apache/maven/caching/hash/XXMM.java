@@ -19,6 +19,7 @@
 package org.apache.maven.caching.hash;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 
@@ -31,8 +32,6 @@
 public class XXMM implements Hash.Factory
 {
 
-    private static final ThreadLocal<CloseableBuffer> BUFFER = new ThreadLocal<>();
-
     @Override
     public String getAlgorithm()
     {
@@ -48,7 +47,7 @@ public Hash.Algorithm algorithm()
     @Override
     public Hash.Checksum checksum( int count )
     {
-        return new XX.Checksum( ThreadLocalBuffer.get( BUFFER, XX.capacity( count ) ) );
+        return new XX.Checksum( ByteBuffer.allocate( XX.capacity( count ) ) );
     }
 
     private static class Algorithm extends XX.Algorithm
@@ -19,6 +19,7 @@
 package org.apache.maven.caching.xml;
 
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -53,6 +54,19 @@
     @Nonnull
     List<PropertyName> getNologProperties( MojoExecution mojoExecution );
 
+    /**
+     * Names of {@link #getTrackedProperties(MojoExecution)}, {@link #getLoggedProperties(MojoExecution)} and
+     * {@link #getNologProperties(MojoExecution)} as hash sets
+     */
+    @Nonnull
+    Set<String> getTrackedPropertyNames( MojoExecution mojoExecution );
+
+    @Nonnull
+    Set<String> getLoggedPropertyNames( MojoExecution mojoExecution );
+
+    @Nonnull
+    Set<String> getNologPropertyNames( MojoExecution mojoExecution );
+
     @Nonnull
     List<String> getEffectivePomExcludeProperties( Plugin plugin );
 
@@ -78,6 +92,11 @@
     @Nonnull
     HashFactory getHashFactory();
 
+    /**
+     * Number of threads to hash project input files concurrently
+     */
+    int getHashingThreads();
+
     boolean isForcedExecution( MojoExecution execution );
 
     String getId();
@@ -107,10 +126,70 @@
     @Nonnull
     List<Pattern> getExcludePatterns();
 
+    /**
+     * @return true if some of output exclude patterns matches the whole file name
+     */
+    boolean isOutputExcluded( String fileName );
+
     boolean isBaselineDiffEnabled();
 
     String getBaselineCacheUrl();
 
+    /**
+     * Flag to save content type, charset and line separators of all input files in build metadata. By default these
+     * details are detected only for files mismatching baseline build
+     * <p>
+     * Use: -Dremote.cache.fileDetails=(true|false)
+     */
+    boolean isFileDetailsEnabled();
+
+    /**
+     * Flag to save effective pom text in build metadata, enabled by {@code EffectivePom} debug option. The text is
+     * saved also when baseline diff is enabled, otherwise only the effective pom hash is recorded
+     */
+    boolean isSaveEffectivePom();
+
+    /**
+     * Flag to combine input files into checksum through a merkle tree of directories instead of a flat list. Hashes of
+     * directories are recorded in build metadata and allow build diff to inspect only changed directories. Checksums
+     * calculated in different modes do not match
+     * <p>
+     * Use: -Dremote.cache.merkleTree=(true|false)
+     */
+    boolean isMerkleTreeEnabled();
+
+    /**
+     * Flag to hash input files as git blobs. Blob ids of clean tracked files are taken from the git index of the
+     * multi-module root without reading the files. Checksums calculated in different modes do not match
+     * <p>
+     * Use: -Dremote.cache.gitIndex=(true|false)
+     */
+    boolean isGitIndexEnabled();
+
+    /**
+     * Flag to calculate checksums of all projects of the session right after projects are read. Projects are
+     * calculated in parallel, each after checksums of its upstream projects are known
+     * <p>
+     * Use: -Dremote.cache.precalculate=(true|false)
+     */
+    boolean isPrecalculateEnabled();
+
+    /**
+     * Flag to store multi-module discovery result in the local cache and reuse it while pom files and properties
+     * referenced in them are not changed
+     * <p>
+     * Use: -Dremote.cache.persistDiscovery=(true|false)
+     */
+    boolean isPersistDiscoveryEnabled();
+
+    /**
+     * Flag to resolve projects of multi-module discovery on demand: pom files of the tree are indexed by raw
+     * coordinates and only projects of the session with their upstream modules are built
+     * <p>
+     * Use: -Dremote.cache.lazyDiscovery=(true|false)
+     */
+    boolean isLazyDiscoveryEnabled();
+
     /**
      * Artifacts restore policy. Eager policy (default) resolves all cached artifacts before restoring project and
      * allows safe to fallback ro normal execution in case of restore failure. Lazy policy restores artifacts on demand
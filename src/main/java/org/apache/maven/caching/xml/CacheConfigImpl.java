@@ -25,6 +25,7 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -39,21 +40,15 @@
 import org.apache.maven.caching.xml.config.AttachedOutputs;
 import org.apache.maven.caching.xml.config.CacheConfig;
 import org.apache.maven.caching.xml.config.Configuration;
-import org.apache.maven.caching.xml.config.CoordinatesBase;
 import org.apache.maven.caching.xml.config.Exclude;
-import org.apache.maven.caching.xml.config.Executables;
 import org.apache.maven.caching.xml.config.ExecutionConfigurationScan;
-import org.apache.maven.caching.xml.config.ExecutionControl;
-import org.apache.maven.caching.xml.config.ExecutionIdsList;
 import org.apache.maven.caching.xml.config.GoalReconciliation;
-import org.apache.maven.caching.xml.config.GoalsList;
 import org.apache.maven.caching.xml.config.Include;
 import org.apache.maven.caching.xml.config.Input;
 import org.apache.maven.caching.xml.config.Local;
 import org.apache.maven.caching.xml.config.MultiModule;
 import org.apache.maven.caching.xml.config.PathSet;
 import org.apache.maven.caching.xml.config.PluginConfigurationScan;
-import org.apache.maven.caching.xml.config.PluginSet;
 import org.apache.maven.caching.xml.config.ProjectVersioning;
 import org.apache.maven.caching.xml.config.PropertyName;
 import org.apache.maven.caching.xml.config.Remote;
@@ -85,6 +80,12 @@ public class CacheConfigImpl implements org.apache.maven.caching.xml.CacheConfig
     public static final String BASELINE_BUILD_URL_PROPERTY_NAME = "remote.cache.baselineUrl";
     public static final String LAZY_RESTORE_PROPERTY_NAME = "remote.cache.lazyRestore";
     public static final String RESTORE_GENERATED_SOURCES_PROPERTY_NAME = "remote.cache.restoreGeneratedSources";
+    public static final String FILE_DETAILS_PROPERTY_NAME = "remote.cache.fileDetails";
+    public static final String MERKLE_TREE_PROPERTY_NAME = "remote.cache.merkleTree";
+    public static final String GIT_INDEX_PROPERTY_NAME = "remote.cache.gitIndex";
+    public static final String PRECALCULATE_PROPERTY_NAME = "remote.cache.precalculate";
+    public static final String PERSIST_DISCOVERY_PROPERTY_NAME = "remote.cache.persistDiscovery";
+    public static final String LAZY_DISCOVERY_PROPERTY_NAME = "remote.cache.lazyDiscovery";
 
     private static final Logger LOGGER = LoggerFactory.getLogger( CacheConfigImpl.class );
 
@@ -95,6 +96,8 @@ public class CacheConfigImpl implements org.apache.maven.caching.xml.CacheConfig
     private CacheConfig cacheConfig;
     private HashFactory hashFactory;
     private List<Pattern> excludePatterns;
+    private OutputExcludes outputExcludes;
+    private CacheConfigIndex index;
 
     @Inject
     public CacheConfigImpl( XmlService xmlService, MavenSession session )
@@ -170,6 +173,8 @@ public CacheState initialize()
                     }
 
                     excludePatterns = compileExcludePatterns();
+                    outputExcludes = new OutputExcludes( excludePatterns );
+                    index = new CacheConfigIndex( cacheConfig );
                     state = CacheState.INITIALIZED;
                 }
             }
@@ -233,30 +238,8 @@ public boolean isLogAllProperties( MojoExecution mojoExecution )
 
     private GoalReconciliation findReconciliationConfig( MojoExecution mojoExecution )
     {
-        if ( cacheConfig.getExecutionControl() == null )
-        {
-            return null;
-        }
-
-        final ExecutionControl executionControl = cacheConfig.getExecutionControl();
-        if ( executionControl.getReconcile() == null )
-        {
-            return null;
-        }
-
-        final List<GoalReconciliation> reconciliation = executionControl.getReconcile().getPlugins();
-
-        for ( GoalReconciliation goalReconciliationConfig : reconciliation )
-        {
-            final String goal = mojoExecution.getGoal();
-
-            if ( isPluginMatch( mojoExecution.getPlugin(), goalReconciliationConfig ) && StringUtils.equals( goal,
-                    goalReconciliationConfig.getGoal() ) )
-            {
-                return goalReconciliationConfig;
-            }
-        }
-        return null;
+        final Plugin plugin = mojoExecution.getPlugin();
+        return index.findReconciliation( plugin.getGroupId(), plugin.getArtifactId(), mojoExecution.getGoal() );
     }
 
     @Nonnull
@@ -292,6 +275,36 @@ public List<PropertyName> getNologProperties( MojoExecution mojoExecution )
         }
     }
 
+    @Nonnull
+    @Override
+    public Set<String> getTrackedPropertyNames( MojoExecution mojoExecution )
+    {
+        checkInitializedState();
+        final GoalReconciliation reconciliationConfig = findReconciliationConfig( mojoExecution );
+        return reconciliationConfig != null ? index.getPropertyNames( reconciliationConfig ).getTracked()
+                : Collections.emptySet();
+    }
+
+    @Nonnull
+    @Override
+    public Set<String> getLoggedPropertyNames( MojoExecution mojoExecution )
+    {
+        checkInitializedState();
+        final GoalReconciliation reconciliationConfig = findReconciliationConfig( mojoExecution );
+        return reconciliationConfig != null ? index.getPropertyNames( reconciliationConfig ).getLogged()
+                : Collections.emptySet();
+    }
+
+    @Nonnull
+    @Override
+    public Set<String> getNologPropertyNames( MojoExecution mojoExecution )
+    {
+        checkInitializedState();
+        final GoalReconciliation reconciliationConfig = findReconciliationConfig( mojoExecution );
+        return reconciliationConfig != null ? index.getPropertyNames( reconciliationConfig ).getNolog()
+                : Collections.emptySet();
+    }
+
     @Nonnull
     @Override
     public List<String> getEffectivePomExcludeProperties( Plugin plugin )
@@ -316,28 +329,7 @@ public MultiModule getMultiModule()
 
     private PluginConfigurationScan findPluginScanConfig( Plugin plugin )
     {
-        if ( cacheConfig.getInput() == null )
-        {
-            return null;
-        }
-
-        final List<PluginConfigurationScan> pluginConfigs = cacheConfig.getInput().getPlugins();
-        for ( PluginConfigurationScan pluginConfig : pluginConfigs )
-        {
-            if ( isPluginMatch( plugin, pluginConfig ) )
-            {
-                return pluginConfig;
-            }
-        }
-        return null;
-    }
-
-    private boolean isPluginMatch( Plugin plugin, CoordinatesBase pluginConfig )
-    {
-        return StringUtils.equals( pluginConfig.getArtifactId(),
-                plugin.getArtifactId() )
-                && ( pluginConfig.getGroupId() == null || StringUtils.equals(
-                        pluginConfig.getGroupId(), plugin.getGroupId() ) );
+        return index.findPluginScan( plugin.getGroupId(), plugin.getArtifactId() );
     }
 
     @Nonnull
@@ -363,8 +355,8 @@ public PluginScanConfig getExecutionDirScanConfig( Plugin plugin, PluginExecutio
 
         if ( pluginScanConfig != null )
         {
-            final ExecutionConfigurationScan executionScanConfig = findExecutionScanConfig( exec,
-                    pluginScanConfig.getExecutions() );
+            final ExecutionConfigurationScan executionScanConfig = index.findExecutionScan( pluginScanConfig,
+                    exec.getId() );
             if ( executionScanConfig != null && executionScanConfig.getDirScan() != null )
             {
                 return new PluginScanConfigImpl( executionScanConfig.getDirScan() );
@@ -374,19 +366,6 @@ public PluginScanConfig getExecutionDirScanConfig( Plugin plugin, PluginExecutio
         return new DefaultPluginScanConfig();
     }
 
-    private ExecutionConfigurationScan findExecutionScanConfig( PluginExecution execution,
-            List<ExecutionConfigurationScan> scanConfigs )
-    {
-        for ( ExecutionConfigurationScan executionScanConfig : scanConfigs )
-        {
-            if ( executionScanConfig.getExecIds().contains( execution.getId() ) )
-            {
-                return executionScanConfig;
-            }
-        }
-        return null;
-    }
-
     @Override
     public String isProcessPlugins()
     {
@@ -426,61 +405,29 @@ public HashFactory getHashFactory()
     }
 
     @Override
-    public boolean canIgnore( MojoExecution mojoExecution )
+    public int getHashingThreads()
     {
         checkInitializedState();
-        if ( cacheConfig.getExecutionControl() == null || cacheConfig.getExecutionControl().getIgnoreMissing() == null )
-        {
-            return false;
-        }
-
-        return executionMatches( mojoExecution, cacheConfig.getExecutionControl().getIgnoreMissing() );
+        final int hashingThreads = getConfiguration().getHashingThreads();
+        return hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
     }
 
     @Override
-    public boolean isForcedExecution( MojoExecution execution )
+    public boolean canIgnore( MojoExecution mojoExecution )
     {
         checkInitializedState();
-        if ( cacheConfig.getExecutionControl() == null || cacheConfig.getExecutionControl().getRunAlways() == null )
-        {
-            return false;
-        }
-
-        return executionMatches( execution, cacheConfig.getExecutionControl().getRunAlways() );
+        final Plugin plugin = mojoExecution.getPlugin();
+        return index.isIgnoreMissing( plugin.getGroupId(), plugin.getArtifactId(), mojoExecution.getExecutionId(),
+                mojoExecution.getGoal() );
     }
 
-    private boolean executionMatches( MojoExecution execution, Executables executablesType )
+    @Override
+    public boolean isForcedExecution( MojoExecution execution )
     {
-        final List<PluginSet> pluginConfigs = executablesType.getPlugins();
-        for ( PluginSet pluginConfig : pluginConfigs )
-        {
-            if ( isPluginMatch( execution.getPlugin(), pluginConfig ) )
-            {
-                return true;
-            }
-        }
-
-        final List<ExecutionIdsList> executionIds = executablesType.getExecutions();
-        for ( ExecutionIdsList executionConfig : executionIds )
-        {
-            if ( isPluginMatch( execution.getPlugin(), executionConfig ) && executionConfig.getExecIds().contains(
-                    execution.getExecutionId() ) )
-            {
-                return true;
-            }
-        }
-
-        final List<GoalsList> pluginsGoalsList = executablesType.getGoalsLists();
-        for ( GoalsList pluginGoals : pluginsGoalsList )
-        {
-            if ( isPluginMatch( execution.getPlugin(), pluginGoals ) && pluginGoals.getGoals().contains(
-                    execution.getGoal() ) )
-            {
-                return true;
-            }
-        }
-
-        return false;
+        checkInitializedState();
+        final Plugin plugin = execution.getPlugin();
+        return index.isRunAlways( plugin.getGroupId(), plugin.getArtifactId(), execution.getExecutionId(),
+                execution.getGoal() );
     }
 
     @Override
@@ -527,6 +474,50 @@ public String getBaselineCacheUrl()
         return getProperty( BASELINE_BUILD_URL_PROPERTY_NAME, null );
     }
 
+    @Override
+    public boolean isFileDetailsEnabled()
+    {
+        final String fileDetails = getProperty( FILE_DETAILS_PROPERTY_NAME, "false" );
+        return Boolean.parseBoolean( fileDetails );
+    }
+
+    @Override
+    public boolean isMerkleTreeEnabled()
+    {
+        return Boolean.parseBoolean( getProperty( MERKLE_TREE_PROPERTY_NAME, "false" ) );
+    }
+
+    @Override
+    public boolean isGitIndexEnabled()
+    {
+        return Boolean.parseBoolean( getProperty( GIT_INDEX_PROPERTY_NAME, "false" ) );
+    }
+
+    @Override
+    public boolean isPrecalculateEnabled()
+    {
+        return Boolean.parseBoolean( getProperty( PRECALCULATE_PROPERTY_NAME, "false" ) );
+    }
+
+    @Override
+    public boolean isPersistDiscoveryEnabled()
+    {
+        return Boolean.parseBoolean( getProperty( PERSIST_DISCOVERY_PROPERTY_NAME, "false" ) );
+    }
+
+    @Override
+    public boolean isLazyDiscoveryEnabled()
+    {
+        return Boolean.parseBoolean( getProperty( LAZY_DISCOVERY_PROPERTY_NAME, "false" ) );
+    }
+
+    @Override
+    public boolean isSaveEffectivePom()
+    {
+        checkInitializedState();
+        return getConfiguration().getDebugs().contains( "EffectivePom" );
+    }
+
     @Override
     public boolean isLazyRestore()
     {
@@ -593,6 +584,13 @@ public List<Pattern> getExcludePatterns()
         return excludePatterns;
     }
 
+    @Override
+    public boolean isOutputExcluded( String fileName )
+    {
+        checkInitializedState();
+        return outputExcludes.matches( fileName );
+    }
+
     private List<Pattern> compileExcludePatterns()
     {
         if ( cacheConfig.getOutput() != null && cacheConfig.getOutput().getExclude() != null )
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.caching.xml.config.CacheConfig;
+import org.apache.maven.caching.xml.config.CoordinatesBase;
+import org.apache.maven.caching.xml.config.Executables;
+import org.apache.maven.caching.xml.config.ExecutionConfigurationScan;
+import org.apache.maven.caching.xml.config.ExecutionControl;
+import org.apache.maven.caching.xml.config.ExecutionIdsList;
+import org.apache.maven.caching.xml.config.GoalReconciliation;
+import org.apache.maven.caching.xml.config.GoalsList;
+import org.apache.maven.caching.xml.config.PluginConfigurationScan;
+import org.apache.maven.caching.xml.config.PluginSet;
+import org.apache.maven.caching.xml.config.PropertyName;
+import org.apache.maven.caching.xml.config.TrackedProperty;
+
+/**
+ * Hashed lookup structures compiled from the loaded cache config. Lookups return the same entries as linear search over
+ * configuration lists: entries are kept in configuration order under hashed keys and the first entry which plugin
+ * group id matches wins (no group id in config matches any group)
+ */
+class CacheConfigIndex
+{
+
+    private final Map<String, List<GoalReconciliation>> reconciliations = new HashMap<>();
+    private final Map<GoalReconciliation, PropertyNames> propertyNames = new IdentityHashMap<>();
+    private final Map<String, List<PluginConfigurationScan>> pluginScans = new HashMap<>();
+    private final Map<PluginConfigurationScan, Map<String, ExecutionConfigurationScan>> executionScans =
+            new IdentityHashMap<>();
+    private final ExecutablesIndex runAlways;
+    private final ExecutablesIndex ignoreMissing;
+
+    CacheConfigIndex( CacheConfig cacheConfig )
+    {
+        final ExecutionControl executionControl = cacheConfig.getExecutionControl();
+        if ( executionControl != null && executionControl.getReconcile() != null )
+        {
+            for ( GoalReconciliation reconciliation : executionControl.getReconcile().getPlugins() )
+            {
+                add( reconciliations, key( reconciliation.getArtifactId(), reconciliation.getGoal() ),
+                        reconciliation );
+                propertyNames.put( reconciliation, new PropertyNames( reconciliation ) );
+            }
+        }
+        runAlways = executionControl != null && executionControl.getRunAlways() != null
+                ? new ExecutablesIndex( executionControl.getRunAlways() ) : null;
+        ignoreMissing = executionControl != null && executionControl.getIgnoreMissing() != null
+                ? new ExecutablesIndex( executionControl.getIgnoreMissing() ) : null;
+
+        if ( cacheConfig.getInput() != null )
+        {
+            for ( PluginConfigurationScan pluginScan : cacheConfig.getInput().getPlugins() )
+            {
+                add( pluginScans, pluginScan.getArtifactId(), pluginScan );
+                final Map<String, ExecutionConfigurationScan> byExecutionId = new HashMap<>();
+                for ( ExecutionConfigurationScan executionScan : pluginScan.getExecutions() )
+                {
+                    for ( String executionId : executionScan.getExecIds() )
+                    {
+                        byExecutionId.putIfAbsent( executionId, executionScan );
+                    }
+                }
+                executionScans.put( pluginScan, byExecutionId );
+            }
+        }
+    }
+
+    GoalReconciliation findReconciliation( String groupId, String artifactId, String goal )
+    {
+        return first( reconciliations.get( key( artifactId, goal ) ), groupId );
+    }
+
+    PropertyNames getPropertyNames( GoalReconciliation reconciliation )
+    {
+        return propertyNames.get( reconciliation );
+    }
+
+    PluginConfigurationScan findPluginScan( String groupId, String artifactId )
+    {
+        return first( pluginScans.get( artifactId ), groupId );
+    }
+
+    ExecutionConfigurationScan findExecutionScan( PluginConfigurationScan pluginScan, String executionId )
+    {
+        return executionScans.get( pluginScan ).get( executionId );
+    }
+
+    boolean isRunAlways( String groupId, String artifactId, String executionId, String goal )
+    {
+        return runAlways != null && runAlways.matches( groupId, artifactId, executionId, goal );
+    }
+
+    boolean isIgnoreMissing( String groupId, String artifactId, String executionId, String goal )
+    {
+        return ignoreMissing != null && ignoreMissing.matches( groupId, artifactId, executionId, goal );
+    }
+
+    private static String key( String first, String second )
+    {
+        return first + ':' + second;
+    }
+
+    private static <T> void add( Map<String, List<T>> map, String key, T value )
+    {
+        map.computeIfAbsent( key, k -> new ArrayList<>( 1 ) ).add( value );
+    }
+
+    private static <T extends CoordinatesBase> T first( List<T> candidates, String groupId )
+    {
+        if ( candidates != null )
+        {
+            for ( T candidate : candidates )
+            {
+                if ( candidate.getGroupId() == null || StringUtils.equals( candidate.getGroupId(), groupId ) )
+                {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Names of tracked, logged and not logged properties of a goal
+     */
+    static class PropertyNames
+    {
+
+        private final Set<String> tracked;
+        private final Set<String> logged;
+        private final Set<String> nolog;
+
+        PropertyNames( GoalReconciliation reconciliation )
+        {
+            final Set<String> trackedNames = new HashSet<>();
+            for ( TrackedProperty property : reconciliation.getReconciles() )
+            {
+                trackedNames.add( property.getPropertyName() );
+            }
+            tracked = Collections.unmodifiableSet( trackedNames );
+            logged = names( reconciliation.getLogs() );
+            nolog = names( reconciliation.getNologs() );
+        }
+
+        private static Set<String> names( List<PropertyName> properties )
+        {
+            final Set<String> names = new HashSet<>();
+            for ( PropertyName property : properties )
+            {
+                names.add( property.getPropertyName() );
+            }
+            return Collections.unmodifiableSet( names );
+        }
+
+        Set<String> getTracked()
+        {
+            return tracked;
+        }
+
+        Set<String> getLogged()
+        {
+            return logged;
+        }
+
+        Set<String> getNolog()
+        {
+            return nolog;
+        }
+    }
+
+    /**
+     * Plugins, executions and goals of an executables section
+     */
+    private static class ExecutablesIndex
+    {
+
+        private final Map<String, List<PluginSet>> plugins = new HashMap<>();
+        private final Map<String, List<ExecutionIdsList>> executions = new HashMap<>();
+        private final Map<String, List<GoalsList>> goals = new HashMap<>();
+
+        ExecutablesIndex( Executables executables )
+        {
+            for ( PluginSet plugin : executables.getPlugins() )
+            {
+                add( plugins, plugin.getArtifactId(), plugin );
+            }
+            for ( ExecutionIdsList executionIds : executables.getExecutions() )
+            {
+                for ( String executionId : executionIds.getExecIds() )
+                {
+                    add( executions, key( executionIds.getArtifactId(), executionId ), executionIds );
+                }
+            }
+            for ( GoalsList goalsList : executables.getGoalsLists() )
+            {
+                for ( String goal : goalsList.getGoals() )
+                {
+                    add( goals, key( goalsList.getArtifactId(), goal ), goalsList );
+                }
+            }
+        }
+
+        boolean matches( String groupId, String artifactId, String executionId, String goal )
+        {
+            return first( plugins.get( artifactId ), groupId ) != null
+                    || first( executions.get( key( artifactId, executionId ) ), groupId ) != null
+                    || first( goals.get( key( artifactId, goal ) ), groupId ) != null;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.xml;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Output exclude patterns compiled for a single evaluation per file name. Literal patterns and literals preceded or
+ * followed by {@code .*} (the common {@code .*\.zip} form) are matched by hashed lookup of the name, its suffixes or
+ * prefixes of configured lengths. Other patterns are combined into one alternation, except patterns with back
+ * references or named groups which can't be combined and are matched one by one
+ */
+class OutputExcludes
+{
+
+    private static final String ANY = ".*";
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private static final Pattern NOT_COMBINABLE = Pattern.compile( "\\\\(?:[1-9]|k<)|\\(\\?<[a-zA-Z]" );
+
+    private final List<Pattern> patterns;
+    private final Set<String> names = new HashSet<>();
+    private final Set<String> suffixes = new HashSet<>();
+    private final Set<String> prefixes = new HashSet<>();
+    private final int[] suffixLengths;
+    private final int[] prefixLengths;
+    private final Pattern combined;
+    private final List<Pattern> separate = new ArrayList<>();
+
+    OutputExcludes( List<Pattern> patterns )
+    {
+        this.patterns = patterns;
+        final Set<Integer> suffixLengthSet = new TreeSet<>();
+        final Set<Integer> prefixLengthSet = new TreeSet<>();
+        final List<String> combinable = new ArrayList<>();
+        for ( Pattern pattern : patterns )
+        {
+            final String regex = pattern.pattern();
+            final String literal = literal( regex );
+            final String suffix = regex.startsWith( ANY ) ? literal( regex.substring( ANY.length() ) ) : null;
+            final String prefix = regex.endsWith( ANY ) && !regex.endsWith( "\\" + ANY )
+                    ? literal( regex.substring( 0, regex.length() - ANY.length() ) ) : null;
+            if ( literal != null )
+            {
+                names.add( literal );
+            }
+            else if ( suffix != null )
+            {
+                suffixes.add( suffix );
+                suffixLengthSet.add( suffix.length() );
+            }
+            else if ( prefix != null )
+            {
+                prefixes.add( prefix );
+                prefixLengthSet.add( prefix.length() );
+            }
+            else if ( pattern.flags() != 0 || NOT_COMBINABLE.matcher( regex ).find() )
+            {
+                separate.add( pattern );
+            }
+            else
+            {
+                combinable.add( regex );
+            }
+        }
+        suffixLengths = suffixLengthSet.stream().mapToInt( Integer::intValue ).toArray();
+        prefixLengths = prefixLengthSet.stream().mapToInt( Integer::intValue ).toArray();
+        combined = combine( combinable );
+    }
+
+    private Pattern combine( List<String> regexes )
+    {
+        if ( regexes.isEmpty() )
+        {
+            return null;
+        }
+        try
+        {
+            return Pattern.compile( regexes.stream().map( regex -> "(?:" + regex + ")" )
+                    .collect( Collectors.joining( "|" ) ) );
+        }
+        catch ( PatternSyntaxException e )
+        {
+            // unbalanced constructs could be valid alone only, keep them apart
+            for ( String regex : regexes )
+            {
+                separate.add( Pattern.compile( regex ) );
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return true if some of patterns matches the whole name
+     */
+    boolean matches( String name )
+    {
+        if ( hasLineTerminator( name ) )
+        {
+            // '.' does not match line terminators, literal lookups are not equivalent to patterns
+            return matchesOneByOne( name );
+        }
+        if ( names.contains( name ) )
+        {
+            return true;
+        }
+        final int length = name.length();
+        for ( int suffixLength : suffixLengths )
+        {
+            if ( suffixLength > length )
+            {
+                break;
+            }
+            if ( suffixes.contains( name.substring( length - suffixLength ) ) )
+            {
+                return true;
+            }
+        }
+        for ( int prefixLength : prefixLengths )
+        {
+            if ( prefixLength > length )
+            {
+                break;
+            }
+            if ( prefixes.contains( name.substring( 0, prefixLength ) ) )
+            {
+                return true;
+            }
+        }
+        if ( combined != null && combined.matcher( name ).matches() )
+        {
+            return true;
+        }
+        for ( Pattern pattern : separate )
+        {
+            if ( pattern.matcher( name ).matches() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesOneByOne( String name )
+    {
+        for ( Pattern pattern : patterns )
+        {
+            if ( pattern.matcher( name ).matches() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return text matched by the regex if it is a literal with optionally escaped punctuation, null otherwise
+     */
+    static String literal( String regex )
+    {
+        final StringBuilder literal = new StringBuilder( regex.length() );
+        for ( int i = 0; i < regex.length(); i++ )
+        {
+            final char c = regex.charAt( i );
+            if ( c == '\\' )
+            {
+                if ( i + 1 == regex.length() || Character.isLetterOrDigit( regex.charAt( i + 1 ) ) )
+                {
+                    // character classes, back references, \Q etc.
+                    return null;
+                }
+                literal.append( regex.charAt( ++i ) );
+            }
+            else if ( REGEX_META_CHARS.indexOf( c ) >= 0 )
+            {
+                return null;
+            }
+            else
+            {
+                literal.append( c );
+            }
+        }
+        return literal.toString();
+    }
+
+    private static boolean hasLineTerminator( String name )
+    {
+        for ( int i = 0; i < name.length(); i++ )
+        {
+            final char c = name.charAt( i );
+            if ( c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiscoveryModelStoreTest
+{
+
+    @TempDir
+    Path dir;
+
+    private final Properties properties = new Properties();
+
+    @Test
+    public void testReloadUntilPomChanged() throws IOException
+    {
+        final Path rootPom = write( "pom.xml", "<project><modules><module>a</module></modules></project>" );
+        final Path modulePom = write( "a/pom.xml",
+                "<project><build><directory>${out.dir}</directory></build></project>" );
+        final MavenProject root = project( "root", rootPom );
+        final MavenProject module = project( "a", modulePom );
+        module.getModel().addDependency( dependency( "b" ) );
+        module.getModel().setBuild( new Build() );
+        module.getBuild().setSourceDirectory( dir.resolve( "a/src/main/java" ).toString() );
+        module.setParent( root );
+
+        store().save( Arrays.asList( root, module ) );
+
+        final Optional<List<MavenProject>> loaded = store().load( root );
+        assertTrue( loaded.isPresent() );
+        final MavenProject loadedModule = loaded.get().get( 1 );
+        assertEquals( "a", loadedModule.getArtifactId() );
+        assertEquals( modulePom.getParent().toFile(), loadedModule.getBasedir() );
+        assertEquals( "b", loadedModule.getDependencies().get( 0 ).getArtifactId() );
+        assertEquals( dir.resolve( "a/src/main/java" ).toString(), loadedModule.getBuild().getSourceDirectory() );
+
+        properties.setProperty( "out.dir", "target" );
+        assertFalse( store().load( root ).isPresent() );
+        properties.clear();
+        assertTrue( store().load( root ).isPresent() );
+
+        write( "pom.xml", "<project><modules><module>a</module><module>c</module></modules></project>" );
+        assertFalse( store().load( root ).isPresent() );
+    }
+
+    @Test
+    public void testContextChanged() throws IOException
+    {
+        final MavenProject root = project( "root", write( "pom.xml", "<project/>" ) );
+        store().save( Arrays.asList( root ) );
+
+        assertTrue( store().load( root ).isPresent() );
+        assertFalse( new DiscoveryModelStore( dir.resolve( "store.bin" ), HashFactory.XX, "profile",
+                Collections.emptyList(), properties::getProperty ).load( root ).isPresent() );
+    }
+
+    @Test
+    public void testConfigFileChanged() throws IOException
+    {
+        final MavenProject root = project( "root", write( "pom.xml", "<project/>" ) );
+        final Path mavenConfig = dir.resolve( ".mvn/maven.config" );
+        final Path settings = dir.resolve( "settings.xml" );
+        final List<Path> configFiles = Arrays.asList( mavenConfig, settings );
+        store( configFiles ).save( Arrays.asList( root ) );
+        assertTrue( store( configFiles ).load( root ).isPresent() );
+
+        write( ".mvn/maven.config", "-Pfast" );
+        assertFalse( store( configFiles ).load( root ).isPresent() );
+        store( configFiles ).save( Arrays.asList( root ) );
+        assertTrue( store( configFiles ).load( root ).isPresent() );
+
+        write( "settings.xml", "<settings><profiles><profile><id>ci</id><activation><property>"
+                + "<name>env.CI</name></property></activation></profile></profiles></settings>" );
+        assertFalse( store( configFiles ).load( root ).isPresent() );
+        store( configFiles ).save( Arrays.asList( root ) );
+        assertTrue( store( configFiles ).load( root ).isPresent() );
+
+        // activation property is not referenced as an expression
+        properties.setProperty( "env.CI", "true" );
+        assertFalse( store( configFiles ).load( root ).isPresent() );
+    }
+
+    private DiscoveryModelStore store()
+    {
+        return store( Collections.emptyList() );
+    }
+
+    private DiscoveryModelStore store( List<Path> configFiles )
+    {
+        return new DiscoveryModelStore( dir.resolve( "store.bin" ), HashFactory.XX, "", configFiles,
+                properties::getProperty );
+    }
+
+    private Path write( String path, String content ) throws IOException
+    {
+        final Path file = dir.resolve( path );
+        Files.createDirectories( file.getParent() );
+        return Files.write( file, content.getBytes( UTF_8 ) );
+    }
+
+    private static MavenProject project( String artifactId, Path pom )
+    {
+        final Model model = new Model();
+        model.setGroupId( "org.example" );
+        model.setArtifactId( artifactId );
+        model.setVersion( "1.0-SNAPSHOT" );
+        final MavenProject project = new MavenProject( model );
+        project.setFile( pom.toFile() );
+        return project;
+    }
+
+    private static Dependency dependency( String artifactId )
+    {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId( "org.example" );
+        dependency.setArtifactId( artifactId );
+        dependency.setVersion( "1.0-SNAPSHOT" );
+        return dependency;
+    }
+}
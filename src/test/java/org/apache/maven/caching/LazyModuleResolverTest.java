@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LazyModuleResolverTest
+{
+
+    @TempDir
+    Path dir;
+
+    private final List<String> built = Collections.synchronizedList( new ArrayList<>() );
+
+    @Test
+    public void testOnlyDependencyClosureIsBuilt() throws IOException
+    {
+        write( "pom.xml", "<project><groupId>g</groupId><artifactId>root</artifactId><version>1</version>"
+                + "<modules><module>a</module><module>b</module><module>c</module></modules>"
+                + "<profiles><profile><id>extra</id><modules><module>d</module></modules></profile></profiles>"
+                + "</project>" );
+        write( "a/pom.xml", module( "a", "1", "b" ) );
+        write( "b/pom.xml", module( "b", "${revision}", null ) );
+        write( "c/pom.xml", module( "c", "1", null ) );
+        write( "d/pom.xml", module( "d", "1", null ) );
+
+        final LazyModuleResolver resolver = new LazyModuleResolver( projectBuilder(),
+                new DefaultProjectBuildingRequest(), dir.resolve( "pom.xml" ) );
+        resolver.prefetch( Collections.singletonList( project( "a" ) ) );
+        assertEquals( 2, built.size() );
+        assertTrue( built.contains( "a" ) && built.contains( "b" ) );
+
+        assertTrue( resolver.contains( "g", "c", "1" ) );
+        assertFalse( resolver.contains( "g", "c", "2" ) );
+        assertFalse( resolver.contains( "g", "d", "1" ) );
+        assertEquals( 2, built.size() );
+
+        assertTrue( resolver.resolve( "g", "b", "1" ).isPresent() );
+        assertFalse( resolver.resolve( "g", "b", "2" ).isPresent() );
+        assertEquals( "c", resolver.resolve( "g", "c", "1" ).get().getArtifactId() );
+        assertEquals( 3, built.size() );
+    }
+
+    @Test
+    public void testProfileModulesIncludedOnlyIfProfileIsActive() throws IOException
+    {
+        write( "pom.xml", "<project><groupId>g</groupId><artifactId>root</artifactId><version>1</version>"
+                + "<modules><module>a</module></modules><profiles>"
+                + "<profile><id>on</id><activation><activeByDefault>true</activeByDefault></activation>"
+                + "<modules><module>e</module></modules></profile>"
+                + "<profile><id>off</id><activation><property><name>x</name></property></activation>"
+                + "<modules><module>f</module><module>a</module></modules></profile>"
+                + "</profiles></project>" );
+        write( "a/pom.xml", module( "a", "1", null ) );
+        write( "e/pom.xml", module( "e", "1", null ) );
+        write( "f/pom.xml", module( "f", "1", null ) );
+
+        final LazyModuleResolver resolver = new LazyModuleResolver( projectBuilder(),
+                new DefaultProjectBuildingRequest(), dir.resolve( "pom.xml" ) );
+        assertTrue( resolver.contains( "g", "a", "1" ) );
+        assertEquals( 0, built.size() );
+
+        assertTrue( resolver.contains( "g", "e", "1" ) );
+        assertFalse( resolver.contains( "g", "f", "1" ) );
+        assertFalse( resolver.resolve( "g", "f", "1" ).isPresent() );
+        assertFalse( built.contains( "f" ) );
+        assertEquals( 1, Collections.frequency( built, "root" ) );
+    }
+
+    private static String module( String artifactId, String version, String dependency )
+    {
+        return "<project><parent><groupId>g</groupId><artifactId>root</artifactId><version>1</version></parent>"
+                + "<artifactId>" + artifactId + "</artifactId><version>" + version + "</version>"
+                + ( dependency == null ? "" : "<dependencies><dependency><groupId>g</groupId><artifactId>"
+                        + dependency + "</artifactId><version>1</version></dependency></dependencies>" )
+                + "</project>";
+    }
+
+    private MavenProject project( String artifactId ) throws IOException
+    {
+        return read( dir.resolve( artifactId ).resolve( "pom.xml" ).toFile() );
+    }
+
+    /**
+     * Builds project from raw model resolving ${revision} to 1, profiles active by default are active
+     */
+    private ProjectBuilder projectBuilder()
+    {
+        return ( ProjectBuilder ) Proxy.newProxyInstance( getClass().getClassLoader(),
+                new Class[] { ProjectBuilder.class }, ( proxy, method, args ) ->
+                {
+                    final MavenProject project = read( ( File ) args[0] );
+                    built.add( project.getArtifactId() );
+                    return Proxy.newProxyInstance( getClass().getClassLoader(),
+                            new Class[] { ProjectBuildingResult.class }, ( result, getter, none ) -> project );
+                } );
+    }
+
+    private static MavenProject read( File pom ) throws IOException
+    {
+        try ( InputStream input = Files.newInputStream( pom.toPath() ) )
+        {
+            final Model model = new MavenXpp3Reader().read( input, false );
+            if ( model.getParent() != null )
+            {
+                model.setGroupId( model.getParent().getGroupId() );
+            }
+            model.setVersion( model.getVersion().replace( "${revision}", "1" ) );
+            final MavenProject project = new MavenProject( model );
+            project.setFile( pom );
+            project.setActiveProfiles( model.getProfiles().stream()
+                    .filter( profile -> profile.getActivation() != null && profile.getActivation().isActiveByDefault() )
+                    .collect( Collectors.toList() ) );
+            return project;
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    private void write( String path, String content ) throws IOException
+    {
+        final Path file = dir.resolve( path );
+        Files.createDirectories( file.getParent() );
+        Files.write( file, content.getBytes( UTF_8 ) );
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching;
+
+import java.util.concurrent.TimeUnit;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Traverses a plugin configuration of ~10k nodes (executions with nested includes, properties and resources) reading
+ * name, value and attribute of each node: with per call reflective lookup, with {@link Xpp3DomUtils} and with direct
+ * calls as the lower bound. Not executed by surefire, run with JMH runner from test classpath
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class Xpp3DomUtilsBenchmark
+{
+
+    private static final int EXECUTIONS = 50;
+    private static final int ENTRIES = 40;
+
+    private Xpp3Dom configuration;
+
+    @Setup
+    public void setUp()
+    {
+        configuration = new Xpp3Dom( "configuration" );
+        for ( int e = 0; e < EXECUTIONS; e++ )
+        {
+            final Xpp3Dom execution = new Xpp3Dom( "execution" );
+            execution.addChild( leaf( "id", "execution-" + e ) );
+            execution.addChild( leaf( "skip", "false" ) );
+            execution.addChild( leaf( "encoding", "UTF-8" ) );
+            final Xpp3Dom includes = new Xpp3Dom( "includes" );
+            final Xpp3Dom properties = new Xpp3Dom( "systemPropertyVariables" );
+            final Xpp3Dom resources = new Xpp3Dom( "resources" );
+            for ( int i = 0; i < ENTRIES; i++ )
+            {
+                includes.addChild( leaf( "include", "**/pkg" + i + "/*Test.java" ) );
+                properties.addChild( leaf( "property." + i, "${project.build.directory}/p" + i ) );
+                final Xpp3Dom resource = new Xpp3Dom( "resource" );
+                final Xpp3Dom directory = leaf( "directory", "src/main/resources-" + i );
+                directory.setAttribute( "remote.cache.input", "true" );
+                resource.addChild( directory );
+                resource.addChild( leaf( "filtering", "true" ) );
+                resources.addChild( resource );
+            }
+            execution.addChild( includes );
+            execution.addChild( properties );
+            execution.addChild( resources );
+            configuration.addChild( execution );
+        }
+    }
+
+    private static Xpp3Dom leaf( String name, String value )
+    {
+        final Xpp3Dom node = new Xpp3Dom( name );
+        node.setValue( value );
+        return node;
+    }
+
+    @Benchmark
+    public int reflection() throws Exception
+    {
+        return reflective( configuration );
+    }
+
+    @Benchmark
+    public int xpp3DomUtils()
+    {
+        return accessors( configuration );
+    }
+
+    @Benchmark
+    public int direct()
+    {
+        return direct( configuration );
+    }
+
+    private static int reflective( Object node ) throws Exception
+    {
+        int result = hash( ( String ) node.getClass().getMethod( "getName" ).invoke( node ),
+                ( String ) node.getClass().getMethod( "getValue" ).invoke( node ),
+                ( String ) node.getClass().getMethod( "getAttribute", String.class )
+                        .invoke( node, "remote.cache.input" ) );
+        for ( Object child : ( Object[] ) node.getClass().getMethod( "getChildren" ).invoke( node ) )
+        {
+            result += reflective( child );
+        }
+        return result;
+    }
+
+    private static int accessors( Object node )
+    {
+        int result = hash( Xpp3DomUtils.getName( node ), Xpp3DomUtils.getValue( node ),
+                Xpp3DomUtils.getAttribute( node, "remote.cache.input" ) );
+        for ( Object child : Xpp3DomUtils.getChildren( node ) )
+        {
+            result += accessors( child );
+        }
+        return result;
+    }
+
+    private static int direct( Xpp3Dom node )
+    {
+        int result = hash( node.getName(), node.getValue(), node.getAttribute( "remote.cache.input" ) );
+        for ( Xpp3Dom child : node.getChildren() )
+        {
+            result += direct( child );
+        }
+        return result;
+    }
+
+    private static int hash( String name, String value, String attribute )
+    {
+        return name.length() + ( value != null ? value.length() : 0 ) + ( attribute != null ? 1 : 0 );
+    }
+}
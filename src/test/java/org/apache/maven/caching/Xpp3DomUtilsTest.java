@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class Xpp3DomUtilsTest
+{
+
+    @Test
+    public void testAccessors()
+    {
+        final Xpp3Dom configuration = new Xpp3Dom( "configuration" );
+        final Xpp3Dom first = new Xpp3Dom( "first" );
+        first.setValue( "src/main/config" );
+        first.setAttribute( "remote.cache.input", "true" );
+        configuration.addChild( first );
+        configuration.addChild( new Xpp3Dom( "second" ) );
+
+        final Object[] children = Xpp3DomUtils.getChildren( configuration );
+        assertEquals( 2, children.length );
+        assertEquals( "first", Xpp3DomUtils.getName( children[0] ) );
+        assertEquals( "src/main/config", Xpp3DomUtils.getValue( children[0] ) );
+        assertEquals( "true", Xpp3DomUtils.getAttribute( children[0], "remote.cache.input" ) );
+        assertNull( Xpp3DomUtils.getAttribute( children[1], "remote.cache.input" ) );
+
+        Xpp3DomUtils.removeChild( configuration, 0 );
+        assertEquals( "second", Xpp3DomUtils.getName( Xpp3DomUtils.getChildren( configuration )[0] ) );
+    }
+
+    @Test
+    public void testMissingMethod()
+    {
+        assertThrows( RuntimeException.class, () -> Xpp3DomUtils.getName( new Object() ) );
+    }
+}
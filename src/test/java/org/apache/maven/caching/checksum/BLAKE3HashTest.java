@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.hash.HashChecksum;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.caching.hash.HexUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BLAKE3HashTest
+{
+
+    private static final String EMPTY_HASH = "af1349b9f5f9a1a6a0404dea36dcc9499bcb25c9adc112b7cc9a93cae41f3262";
+    private static final String ABC_HASH = "6437b3ac38465133ffb63b75273a8db548c558465d79db03fd359c6cd5bd9d85";
+
+    /**
+     * Length and hash of {@link #content(int)}: single chunk, partial and complete subtrees of chunks
+     */
+    private static final String[][] VECTORS = {
+            { "1", "448bd8dd9624154a690f8e84dc52d6f633ba7cd545c4d3c9b4e0f6a2f6fa71f4" },
+            { "1025", "ef493a9db5178f983043f86d90e05a581be9e1ff69137a4f14d09bd5352c3d3d" },
+            { "3073", "805c672faa96513dcadecc91972c394e72270de7a057e5db9c4d047f3589c0d5" },
+            { "8193", "03d96ccc24628790e9b771db8681f5f56ac3f2fd9f65d509bc86c2287c07a0e9" },
+            { "102400", "4f027a34e5c8926c6fa98c483d43effdc9fa7f1d5e80a19c561e0e67c32afe1d" },
+            { "600000", "a62a28025d2c9fd6a612bd30ef79f5db5b50f6a6576a5169c8ed39db8e3d7354" } };
+
+    private static final HashAlgorithm ALGORITHM = algorithm( "BLAKE3" );
+
+    @Test
+    public void testReferenceHashes()
+    {
+        assertEquals( EMPTY_HASH, ALGORITHM.hash( new byte[0] ) );
+        assertEquals( ABC_HASH, ALGORITHM.hash( "abc".getBytes( StandardCharsets.US_ASCII ) ) );
+        for ( String[] vector : VECTORS )
+        {
+            assertEquals( vector[1], ALGORITHM.hash( content( Integer.parseInt( vector[0] ) ) ), vector[0] );
+        }
+    }
+
+    @Test
+    public void testStreamingSameAsTree() throws IOException
+    {
+        for ( String[] vector : VECTORS )
+        {
+            final byte[] content = content( Integer.parseInt( vector[0] ) );
+            // uneven writes cross block and chunk boundaries
+            assertEquals( vector[1], ALGORITHM.hash( output ->
+            {
+                int offset = 0;
+                for ( int length = 1; offset < content.length; length = length * 3 + 1 )
+                {
+                    final int chunk = Math.min( length, content.length - offset );
+                    output.write( content, offset, chunk );
+                    offset += chunk;
+                }
+            } ), vector[0] );
+        }
+    }
+
+    @Test
+    public void testParallelSameAsSequential() throws InterruptedException, ExecutionException
+    {
+        final byte[] content = new byte[3 * 1024 * 1024 + 13];
+        new Random( 42 ).nextBytes( content );
+        // outside of a pool the tree is hashed by the calling thread only
+        final String sequential = ALGORITHM.hash( content );
+        final ForkJoinPool pool = new ForkJoinPool( 2 );
+        try
+        {
+            assertEquals( sequential, pool.submit( () -> ALGORITHM.hash( content ) ).get() );
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFileHash( @TempDir Path tempDir ) throws IOException
+    {
+        // larger than read chunk and parallel hashing threshold, not aligned to chunk
+        final byte[] content = new byte[3 * 1024 * 1024 + 13];
+        new Random( 42 ).nextBytes( content );
+        final Path file = Files.write( tempDir.resolve( "content.bin" ), content );
+        final Path empty = Files.write( tempDir.resolve( "empty.bin" ), new byte[0] );
+
+        final String expected = ALGORITHM.hash( content );
+        assertEquals( expected, ALGORITHM.hash( file ) );
+        assertEquals( expected, algorithm( "BLAKE3MM" ).hash( file ) );
+        assertEquals( EMPTY_HASH, ALGORITHM.hash( empty ) );
+        assertEquals( EMPTY_HASH, algorithm( "BLAKE3MM" ).hash( empty ) );
+    }
+
+    @Test
+    public void testChecksumOfConcatenatedHashes() throws NoSuchAlgorithmException
+    {
+        final HashChecksum checksum = HashFactory.of( "BLAKE3" ).createChecksum( 2 );
+        final String first = checksum.update( content( 5 ) );
+        final String second = checksum.update( content( 2000 ) );
+        assertEquals( ALGORITHM.hash( HexUtils.decode( first + second ) ), checksum.digest() );
+    }
+
+    private static HashAlgorithm algorithm( String algorithm )
+    {
+        try
+        {
+            return HashFactory.of( algorithm ).createAlgorithm();
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static byte[] content( int length )
+    {
+        final byte[] content = new byte[length];
+        for ( int i = 0; i < length; i++ )
+        {
+            content[i] = ( byte ) ( i * 31 + 7 + ( i >> 8 ) );
+        }
+        return content;
+    }
+}
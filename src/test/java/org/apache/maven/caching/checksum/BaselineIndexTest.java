@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import org.apache.maven.caching.xml.build.DigestItem;
+import org.apache.maven.caching.xml.build.ProjectsInputInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class BaselineIndexTest
+{
+
+    @Test
+    public void testLookupByTypeAndTrimmedValue()
+    {
+        final ProjectsInputInfo baseline = new ProjectsInputInfo();
+        baseline.getItems().add( item( "pom", null, "p1" ) );
+        baseline.getItems().add( item( "file", "  src/A.java\n", "a1" ) );
+        baseline.getItems().add( item( "file", "src/A.java", "a2" ) );
+        baseline.getItems().add( item( "dependency", "src/A.java", "d1" ) );
+
+        final BaselineIndex index = new BaselineIndex( baseline );
+        assertEquals( "a1", index.find( "file", "src/A.java" ).getHash() );
+        assertEquals( "d1", index.find( "dependency", "src/A.java" ).getHash() );
+        assertNull( index.find( "file", "src/B.java" ) );
+        assertNull( index.find( "directory", "src" ) );
+        assertEquals( "p1", index.findFirst( "pom" ).getHash() );
+        assertNull( index.findFirst( "directory" ) );
+    }
+
+    private static DigestItem item( String type, String value, String hash )
+    {
+        final DigestItem item = new DigestItem();
+        item.setType( type );
+        item.setValue( value );
+        item.setHash( hash );
+        return item;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.hash.HashFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DependencyHashIndexTest
+{
+
+    private static final long MODIFIED = System.currentTimeMillis() - TimeUnit.HOURS.toMillis( 1 );
+
+    private final HashAlgorithm algorithm = HashFactory.XX.createAlgorithm();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testHashReusedWithinSessionAndAfterReload() throws IOException
+    {
+        final Path jar = write( "lib-1.0-SNAPSHOT.jar", "hello", MODIFIED );
+        final Path indexFile = tempDir.resolve( "dependencyhashes.idx" );
+        final String hash = algorithm.hash( jar );
+
+        final FileHashIndex fileHashIndex = FileHashIndex.load( indexFile, "XX" );
+        final DependencyHashIndex index = new DependencyHashIndex( fileHashIndex );
+        assertEquals( hash, index.hash( algorithm, jar ) );
+        fileHashIndex.save();
+
+        // same stat data, recorded hash is used instead of content
+        write( "lib-1.0-SNAPSHOT.jar", "world", MODIFIED );
+        assertEquals( hash, index.hash( algorithm, jar ) );
+        assertEquals( hash, new DependencyHashIndex( FileHashIndex.load( indexFile, "XX" ) ).hash( algorithm, jar ) );
+
+        // updated snapshot is rehashed
+        write( "lib-1.0-SNAPSHOT.jar", "world", MODIFIED + 1000 );
+        assertEquals( algorithm.hash( jar ), index.hash( algorithm, jar ) );
+    }
+
+    @Test
+    public void testRecentlyModifiedFileMemoizedInSession() throws IOException
+    {
+        final long now = System.currentTimeMillis();
+        final Path jar = write( "lib-1.0-SNAPSHOT.jar", "hello", now );
+        final String hash = algorithm.hash( jar );
+        final DependencyHashIndex index = new DependencyHashIndex(
+                FileHashIndex.load( tempDir.resolve( "dependencyhashes.idx" ), "XX" ) );
+        assertEquals( hash, index.hash( algorithm, jar ) );
+
+        write( "lib-1.0-SNAPSHOT.jar", "world", now );
+        assertEquals( hash, index.hash( algorithm, jar ) );
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception
+    {
+        final Path jar = write( "lib-1.0-SNAPSHOT.jar", "hello", MODIFIED );
+        final DependencyHashIndex index = new DependencyHashIndex(
+                FileHashIndex.load( tempDir.resolve( "dependencyhashes.idx" ), "XX" ) );
+        final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            final List<Future<String>> futures = new ArrayList<>();
+            for ( int i = 0; i < 32; i++ )
+            {
+                futures.add( executor.submit( () -> index.hash( HashFactory.XX.createAlgorithm(), jar ) ) );
+            }
+            final Set<String> hashes = new HashSet<>();
+            for ( Future<String> future : futures )
+            {
+                hashes.add( future.get() );
+            }
+            assertEquals( 1, hashes.size() );
+            assertEquals( algorithm.hash( jar ), hashes.iterator().next() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private Path write( String name, String content, long modified ) throws IOException
+    {
+        final Path file = Files.write( tempDir.resolve( name ), content.getBytes( UTF_8 ) );
+        Files.setLastModifiedTime( file, FileTime.fromMillis( modified ) );
+        return file;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.maven.caching.xml.build.DigestItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.apache.maven.caching.hash.HashFactory.XX;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class DigestUtilsTest
+{
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFileDigestWithoutDetails() throws IOException
+    {
+        Path file = write( "src/Hello.java", "hello" );
+
+        DigestItem item = DigestUtils.file( XX.createAlgorithm(), tempDir, file );
+
+        assertEquals( "file", item.getType() );
+        assertEquals( "src/Hello.java", item.getValue() );
+        assertEquals( "26c7827d889f6da3", item.getHash() );
+        assertNull( item.getContent() );
+        assertNull( item.getIsText() );
+        assertNull( item.getEol() );
+    }
+
+    @Test
+    public void testTextFileDetails() throws IOException
+    {
+        Path file = write( "Hello.java", "class Hello\r\n{\r\n}\r\n" );
+        DigestItem item = new DigestItem();
+
+        DigestUtils.populateContentDetails( file, item );
+
+        assertEquals( "text/x-java", item.getContent() );
+        assertEquals( "yes", item.getIsText() );
+        assertEquals( "CRLF", item.getEol() );
+    }
+
+    @Test
+    public void testBinaryFileDetails() throws IOException
+    {
+        Path file = write( "image.PNG", "\n" );
+        DigestItem item = new DigestItem();
+
+        DigestUtils.populateContentDetails( file, item );
+
+        assertEquals( "image/png", item.getContent() );
+        assertEquals( "no", item.getIsText() );
+        assertNull( item.getEol() );
+    }
+
+    @Test
+    public void testUnknownFileDetails() throws IOException
+    {
+        Path file = write( "README", "no line separator" );
+        DigestItem item = new DigestItem();
+
+        DigestUtils.populateContentDetails( file, item );
+
+        assertNull( item.getContent() );
+        assertEquals( "unknown", item.getIsText() );
+        assertEquals( "unknown", item.getEol() );
+    }
+
+    private Path write( String name, String content ) throws IOException
+    {
+        Path file = tempDir.resolve( name );
+        Files.createDirectories( file.getParent() );
+        return Files.write( file, content.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
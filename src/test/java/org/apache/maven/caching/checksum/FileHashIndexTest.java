@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.caching.xml.build.DigestItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class FileHashIndexTest
+{
+
+    private static final String ALGORITHM = "XX";
+    private static final String FILE_NAME = "src/main/java/Hello.java";
+    private static final String HASH = "26c7827d889f6da3";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testIndexedDigestReusedAfterReload() throws IOException
+    {
+        Path file = createFile( "hello" );
+        Path indexFile = tempDir.resolve( "filehashes.idx" );
+
+        FileHashIndex index = FileHashIndex.load( indexFile, ALGORITHM );
+        assertNull( index.find( FILE_NAME, attributes( file ) ) );
+        index.put( FILE_NAME, attributes( file ), item() );
+        index.save();
+
+        DigestItem reloaded = FileHashIndex.load( indexFile, ALGORITHM ).find( FILE_NAME, attributes( file ) );
+        assertNotNull( reloaded );
+        assertEquals( HASH, reloaded.getHash() );
+        assertEquals( FILE_NAME, reloaded.getValue() );
+        assertEquals( "text/x-java", reloaded.getContent() );
+        assertEquals( "LF", reloaded.getEol() );
+        assertNull( reloaded.getCharset() );
+    }
+
+    @Test
+    public void testModifiedFileIsNotReused() throws IOException
+    {
+        Path file = createFile( "hello" );
+        Path indexFile = tempDir.resolve( "filehashes.idx" );
+
+        FileHashIndex index = FileHashIndex.load( indexFile, ALGORITHM );
+        index.put( FILE_NAME, attributes( file ), item() );
+        index.save();
+
+        Files.write( file, "hello world".getBytes( StandardCharsets.UTF_8 ) );
+        Files.setLastModifiedTime( file, FileTime.fromMillis( System.currentTimeMillis() - TimeUnit.HOURS.toMillis(
+                1 ) ) );
+        assertNull( FileHashIndex.load( indexFile, ALGORITHM ).find( FILE_NAME, attributes( file ) ) );
+    }
+
+    @Test
+    public void testIndexOfAnotherAlgorithmIgnored() throws IOException
+    {
+        Path file = createFile( "hello" );
+        Path indexFile = tempDir.resolve( "filehashes.idx" );
+
+        FileHashIndex index = FileHashIndex.load( indexFile, ALGORITHM );
+        index.put( FILE_NAME, attributes( file ), item() );
+        index.save();
+
+        assertNull( FileHashIndex.load( indexFile, "SHA-256" ).find( FILE_NAME, attributes( file ) ) );
+    }
+
+    @Test
+    public void testRecentlyModifiedFileIsNotIndexed() throws IOException
+    {
+        Path file = tempDir.resolve( "Hello.java" );
+        Files.write( file, "hello".getBytes( StandardCharsets.UTF_8 ) );
+        Path indexFile = tempDir.resolve( "filehashes.idx" );
+
+        FileHashIndex index = FileHashIndex.load( indexFile, ALGORITHM );
+        index.put( FILE_NAME, attributes( file ), item() );
+        index.save();
+
+        assertNull( index.find( FILE_NAME, attributes( file ) ) );
+        assertFalse( Files.exists( indexFile ) );
+    }
+
+    @Test
+    public void testRetainedEntriesSurviveSessionWithoutLookups() throws IOException
+    {
+        Path hello = createFile( "Hello.java", "hello" );
+        Path world = createFile( "World.java", "world" );
+        Path indexFile = tempDir.resolve( "filehashes.idx" );
+
+        FileHashIndex index = FileHashIndex.load( indexFile, ALGORITHM );
+        index.put( "Hello.java", attributes( hello ), item() );
+        index.put( "World.java", attributes( world ), item() );
+        index.save();
+
+        // stored inputs reused: no file is looked up
+        index = FileHashIndex.load( indexFile, ALGORITHM );
+        index.retainLoaded();
+        index.save();
+
+        Files.write( world, "world!".getBytes( StandardCharsets.UTF_8 ) );
+        Files.setLastModifiedTime( world, FileTime.fromMillis( System.currentTimeMillis() - TimeUnit.HOURS.toMillis(
+                1 ) ) );
+        index = FileHashIndex.load( indexFile, ALGORITHM );
+        assertNotNull( index.find( "Hello.java", attributes( hello ) ) );
+        assertNull( index.find( "World.java", attributes( world ) ) );
+    }
+
+    private Path createFile( String content ) throws IOException
+    {
+        return createFile( "Hello.java", content );
+    }
+
+    private Path createFile( String name, String content ) throws IOException
+    {
+        Path file = tempDir.resolve( name );
+        Files.write( file, content.getBytes( StandardCharsets.UTF_8 ) );
+        Files.setLastModifiedTime( file, FileTime.fromMillis( System.currentTimeMillis() - TimeUnit.DAYS.toMillis(
+                1 ) ) );
+        return file;
+    }
+
+    private static BasicFileAttributes attributes( Path file ) throws IOException
+    {
+        return Files.readAttributes( file, BasicFileAttributes.class );
+    }
+
+    private static DigestItem item()
+    {
+        DigestItem item = new DigestItem();
+        item.setType( "file" );
+        item.setValue( FILE_NAME );
+        item.setHash( HASH );
+        item.setContent( "text/x-java" );
+        item.setIsText( "yes" );
+        item.setEol( "LF" );
+        return item;
+    }
+}
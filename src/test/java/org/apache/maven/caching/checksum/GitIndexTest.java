@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.caching.hash.HexUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GitIndexTest
+{
+
+    /**
+     * {@code git hash-object} of "hello\n"
+     */
+    private static final String HELLO_BLOB = "ce013625030ba8dba906f756967f9e9ca394464a";
+    private static final String RECORDED_BLOB = "0123456789abcdef0123456789abcdef01234567";
+
+    @TempDir
+    Path workTree;
+
+    @Test
+    public void testBlobHash() throws IOException
+    {
+        final Path file = Files.write( workTree.resolve( "hello.txt" ), "hello\n".getBytes( UTF_8 ) );
+        assertEquals( HELLO_BLOB, GitIndex.hashBlob( file, Files.size( file ) ) );
+    }
+
+    @Test
+    public void testCleanFilesUseRecordedBlob() throws IOException
+    {
+        testIndexVersion( 2 );
+        testIndexVersion( 4 );
+    }
+
+    private void testIndexVersion( int version ) throws IOException
+    {
+        final Path clean = write( "src/main/java/Clean.java", "hello\n" );
+        final Path dirty = write( "src/main/java/Dirty.java", "hello\n" );
+        final Path untracked = write( "src/main/java/Untracked.java", "hello\n" );
+
+        final long cleanModified = modifiedSeconds( clean );
+        final byte[] index = index( version,
+                new String[] { "src/main/java/Clean.java", "src/main/java/Dirty.java" },
+                new long[] { cleanModified, cleanModified - 10 } );
+        final Path indexFile = Files.write( Files.createDirectories( workTree.resolve( ".git" ) ).resolve( "index" ),
+                index );
+        Files.setLastModifiedTime( indexFile, FileTime.from( cleanModified + 10, TimeUnit.SECONDS ) );
+
+        final GitIndex gitIndex = load();
+        assertEquals( RECORDED_BLOB, gitIndex.blobId( clean, attributes( clean ) ) );
+        assertEquals( HELLO_BLOB, gitIndex.blobId( dirty, attributes( dirty ) ) );
+        assertEquals( HELLO_BLOB, gitIndex.blobId( untracked, attributes( untracked ) ) );
+    }
+
+    @Test
+    public void testRacilyCleanFileIsHashed() throws IOException
+    {
+        final Path file = write( "A.java", "hello\n" );
+        final long modified = modifiedSeconds( file );
+        final Path indexFile = Files.write( Files.createDirectories( workTree.resolve( ".git" ) ).resolve( "index" ),
+                index( 2, new String[] { "A.java" }, new long[] { modified } ) );
+        // index written within the same second as the file modification
+        Files.setLastModifiedTime( indexFile, FileTime.from( modified, TimeUnit.SECONDS ) );
+
+        assertEquals( HELLO_BLOB, load().blobId( file, attributes( file ) ) );
+    }
+
+    @Test
+    public void testCorruptedIndexIgnored() throws IOException
+    {
+        Files.write( Files.createDirectories( workTree.resolve( ".git" ) ).resolve( "index" ),
+                "DIRC".getBytes( UTF_8 ) );
+
+        assertNull( load() );
+    }
+
+    @Test
+    public void testLinkedWorkTreeAndNestedProjectNotSupported() throws IOException
+    {
+        final Path root = Files.createDirectories( workTree.resolve( "root" ) );
+        Files.createDirectories( root.resolve( ".git" ) );
+        Files.write( root.resolve( ".git" ).resolve( "index" ), index( 2, new String[0], new long[0] ) );
+        assertNotNull( GitIndex.load( root, Collections.singletonList( userConfig( "false" ) ) ) );
+
+        final Path nested = Files.createDirectories( root.resolve( "nested" ) );
+        assertNull( GitIndex.load( nested, Collections.singletonList( userConfig( "false" ) ) ) );
+
+        Files.write( nested.resolve( ".git" ), "gitdir: ../.git/worktrees/nested".getBytes( UTF_8 ) );
+        assertNull( GitIndex.load( nested, Collections.singletonList( userConfig( "false" ) ) ) );
+    }
+
+    @Test
+    public void testContentConversionNotSupported() throws IOException
+    {
+        Files.write( Files.createDirectories( workTree.resolve( ".git" ) ).resolve( "index" ),
+                index( 2, new String[] { ".gitattributes" }, new long[] { 0 } ) );
+        assertNotNull( load() );
+        assertNull( GitIndex.load( workTree, Collections.singletonList( userConfig( "input" ) ) ) );
+
+        write( ".gitattributes", "*.png binary\n*.sh -text\n" );
+        assertNotNull( load() );
+        write( ".gitattributes", "*.bin filter=lfs diff=lfs merge=lfs -text\n" );
+        assertNull( load() );
+        write( ".gitattributes", "# comment\n* text=auto\n" );
+        assertNull( load() );
+    }
+
+    @Test
+    public void testConversionAttributes()
+    {
+        assertFalse( GitIndex.hasConversionAttributes( Arrays.asList( "", "# text", "*.jar binary", "*.txt -text",
+                "*.md !eol diff" ) ) );
+        assertTrue( GitIndex.hasConversionAttributes( Collections.singletonList( "*.java text" ) ) );
+        assertTrue( GitIndex.hasConversionAttributes( Collections.singletonList( "*.bat eol=crlf" ) ) );
+        assertTrue( GitIndex.hasConversionAttributes( Collections.singletonList( "[attr]lfs filter=lfs" ) ) );
+    }
+
+    private GitIndex load() throws IOException
+    {
+        return GitIndex.load( workTree, Collections.singletonList( userConfig( "false" ) ) );
+    }
+
+    /**
+     * Global configuration with explicit core.autocrlf, not depending on the platform
+     */
+    private Path userConfig( String autocrlf ) throws IOException
+    {
+        final Path config = workTree.resolve( "user.gitconfig" );
+        return Files.write( config, ( "[user]\n\tname = test\n[core]\n\tautocrlf = " + autocrlf + " # comment\n" )
+                .getBytes( UTF_8 ) );
+    }
+
+    private Path write( String path, String content ) throws IOException
+    {
+        final Path file = workTree.resolve( path );
+        Files.createDirectories( file.getParent() );
+        Files.write( file, content.getBytes( UTF_8 ) );
+        Files.setLastModifiedTime( file, FileTime.from( 1_600_000_000L, TimeUnit.SECONDS ) );
+        return file;
+    }
+
+    private static long modifiedSeconds( Path file ) throws IOException
+    {
+        return Files.getLastModifiedTime( file ).to( TimeUnit.SECONDS );
+    }
+
+    private static BasicFileAttributes attributes( Path file ) throws IOException
+    {
+        return Files.readAttributes( file, BasicFileAttributes.class );
+    }
+
+    /**
+     * Writes index with regular files of 6 bytes size
+     */
+    private static byte[] index( int version, String[] paths, long[] modified ) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream( bytes );
+        out.writeBytes( "DIRC" );
+        out.writeInt( version );
+        out.writeInt( paths.length );
+        String previous = "";
+        for ( int i = 0; i < paths.length; i++ )
+        {
+            final int start = out.size();
+            out.writeInt( ( int ) modified[i] ); // ctime
+            out.writeInt( 0 );
+            out.writeInt( ( int ) modified[i] ); // mtime
+            out.writeInt( 0 );
+            out.writeInt( 0 ); // dev
+            out.writeInt( 0 ); // ino
+            out.writeInt( 0100644 );
+            out.writeInt( 0 ); // uid
+            out.writeInt( 0 ); // gid
+            out.writeInt( 6 );
+            out.write( HexUtils.decode( RECORDED_BLOB ) );
+            out.writeShort( paths[i].length() );
+            if ( version == 4 )
+            {
+                int common = 0;
+                while ( common < previous.length() && common < paths[i].length()
+                        && previous.charAt( common ) == paths[i].charAt( common ) )
+                {
+                    common++;
+                }
+                // single byte offset, test paths are short
+                out.writeByte( previous.length() - common );
+                out.writeBytes( paths[i].substring( common ) );
+                out.writeByte( 0 );
+            }
+            else
+            {
+                out.writeBytes( paths[i] );
+                do
+                {
+                    out.writeByte( 0 );
+                }
+                while ( ( out.size() - start ) % 8 != 0 );
+            }
+            previous = paths[i];
+        }
+        return bytes.toByteArray();
+    }
+}
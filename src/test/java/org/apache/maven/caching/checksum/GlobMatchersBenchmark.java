@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matches {@link MavenProjectInput#DEFAULT_GLOB} over a synthetic tree of 50k files: per directory glob compilation
+ * ({@code Files.newDirectoryStream(dir, glob)}), file system matcher compiled once and {@link GlobMatchers}. Not
+ * executed by surefire, run with JMH runner from test classpath
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class GlobMatchersBenchmark
+{
+
+    private static final int DIRECTORIES = 500;
+    private static final int FILES_PER_DIRECTORY = 100;
+    private static final String[] EXTENSIONS = { "java", "xml", "properties", "class", "txt", "png", "yaml", "kt" };
+
+    private Path root;
+    private List<Path> directories;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        root = Files.createTempDirectory( "glob-benchmark" );
+        directories = new ArrayList<>( DIRECTORIES );
+        for ( int d = 0; d < DIRECTORIES; d++ )
+        {
+            final Path dir = Files.createDirectories( root.resolve( "p" + d % 10 ).resolve( "d" + d ) );
+            directories.add( dir );
+            for ( int f = 0; f < FILES_PER_DIRECTORY; f++ )
+            {
+                Files.createFile( dir.resolve( "File" + f + "." + EXTENSIONS[f % EXTENSIONS.length] ) );
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        FileUtils.deleteDirectory( root.toFile() );
+    }
+
+    @Benchmark
+    public int directoryStream() throws IOException
+    {
+        int count = 0;
+        for ( Path dir : directories )
+        {
+            try ( DirectoryStream<Path> stream = Files.newDirectoryStream( dir, MavenProjectInput.DEFAULT_GLOB ) )
+            {
+                for ( Path ignored : stream )
+                {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int fileSystemMatcher()
+    {
+        return walk( FileSystems.getDefault().getPathMatcher( "glob:" + MavenProjectInput.DEFAULT_GLOB ) );
+    }
+
+    @Benchmark
+    public int globMatchers()
+    {
+        return walk( GlobMatchers.compile( MavenProjectInput.DEFAULT_GLOB ) );
+    }
+
+    private int walk( PathMatcher matcher )
+    {
+        final List<Path> files = new ArrayList<>();
+        for ( Path dir : directories )
+        {
+            MavenProjectInput.walkDirectoryFiles( dir, files, matcher, it -> false );
+        }
+        return files.size();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class GlobMatchersTest
+{
+
+    private static final String[] GLOBS = {
+            MavenProjectInput.DEFAULT_GLOB,
+            "*",
+            "*.java",
+            "{*.java,*.xml}",
+            "{*.tar.gz,*.jar}",
+            "{pom.xml,*.properties,src?.txt}",
+            "[a-z]*.java",
+            "{*.java,*.[ch]}",
+            "*.{java,kt}" };
+
+    private static final String[] NAMES = {
+            "Hello.java", "Hello.JAVA", "Hello.java.bak", ".java", "java", "a.xml", "pom.xml", "assembly.xml",
+            "src-assembly.xml", "assembly-bin.xml", "logback.xml", "my-logback.xml", "app.properties", "run.sh",
+            "a.tar.gz", "b.gz", "lib.jar", "src1.txt", "src12.txt", "Main.kt", "x.c", "x.h", "x.cpp", "README",
+            "trailing.", "dir/Hello.java" };
+
+    @Test
+    public void testSameResultAsFileSystemMatcher()
+    {
+        for ( String glob : GLOBS )
+        {
+            final PathMatcher expected = FileSystems.getDefault().getPathMatcher( "glob:" + glob );
+            final PathMatcher actual = GlobMatchers.compile( glob );
+            for ( String name : NAMES )
+            {
+                final Path path = Paths.get( name );
+                assertEquals( expected.matches( path ), actual.matches( path ), glob + " vs " + name );
+            }
+        }
+    }
+
+    @Test
+    public void testMatcherIsCached()
+    {
+        final GlobMatchers globMatchers = new GlobMatchers();
+        assertSame( globMatchers.get( MavenProjectInput.DEFAULT_GLOB ),
+                globMatchers.get( MavenProjectInput.DEFAULT_GLOB ) );
+    }
+}
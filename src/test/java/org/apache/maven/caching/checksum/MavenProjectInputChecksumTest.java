@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.caching.LocalCacheRepository;
+import org.apache.maven.caching.NormalizedModelProvider;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.caching.xml.CacheConfig;
+import org.apache.maven.caching.xml.build.DigestItem;
+import org.apache.maven.caching.xml.build.ProjectsInputInfo;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checksum calculation of a project with stubbed maven and cache components
+ */
+public class MavenProjectInputChecksumTest
+{
+
+    private static final int FILES = 20;
+
+    @TempDir
+    Path basedir;
+
+    private final Map<String, Object> config = new HashMap<>();
+    private final Map<String, ProjectsInputInfo> storedInputs = new HashMap<>();
+    private final ForkJoinPool executor = new ForkJoinPool( 2 );
+    private MavenProject project;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        config.put( "getHashFactory", HashFactory.XX );
+        config.put( "getHashingThreads", 2 );
+        config.put( "getDefaultGlob", "*.java" );
+
+        final Path sources = Files.createDirectories( basedir.resolve( "src/main/java" ) );
+        for ( int i = 0; i < FILES; i++ )
+        {
+            final Path file = Files.write( sources.resolve( "A" + i + ".java" ), ( "class A" + i + " {}" )
+                    .getBytes( UTF_8 ) );
+            Files.setLastModifiedTime( file, FileTime.from( System.currentTimeMillis() - TimeUnit.DAYS.toMillis( 1 ),
+                    TimeUnit.MILLISECONDS ) );
+        }
+
+        final Build build = new Build();
+        build.setDirectory( basedir.resolve( "target" ).toString() );
+        build.setOutputDirectory( basedir.resolve( "target/classes" ).toString() );
+        build.setTestOutputDirectory( basedir.resolve( "target/test-classes" ).toString() );
+        build.setSourceDirectory( sources.toString() );
+        build.setTestSourceDirectory( basedir.resolve( "src/test/java" ).toString() );
+        final Model model = new Model();
+        model.setGroupId( "g" );
+        model.setArtifactId( "a" );
+        model.setVersion( "1" );
+        model.setPackaging( "jar" );
+        model.setBuild( build );
+        project = new MavenProject( model );
+        project.setFile( basedir.resolve( "pom.xml" ).toFile() );
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGitIndexWithDefaultAlgorithm() throws IOException
+    {
+        final GitIndex gitIndex = new GitIndex( basedir, Collections.emptyMap() );
+        final ProjectsInputInfo inputs = calculate( gitIndex );
+        assertEquals( 1 + FILES, inputs.getItems().size() );
+        final Path file = basedir.resolve( "src/main/java/A0.java" );
+        assertEquals( GitIndex.hashBlob( file, Files.size( file ) ),
+                inputs.getItems().get( 1 ).getHash() );
+        assertEquals( inputs.getChecksum(), calculate( gitIndex ).getChecksum() );
+        assertNotEquals( inputs.getChecksum(), calculate( null ).getChecksum() );
+    }
+
+    @Test
+    public void testStoredInputsDependOnSavedEffectivePom() throws IOException
+    {
+        config.put( "isSaveEffectivePom", false );
+        assertNull( effectivePom( calculate( null ) ).getValue() );
+        assertEquals( 1, storedInputs.size() );
+
+        config.put( "isSaveEffectivePom", true );
+        assertNotNull( effectivePom( calculate( null ) ).getValue() );
+        assertEquals( 2, storedInputs.size() );
+
+        config.put( "isSaveEffectivePom", false );
+        assertNull( effectivePom( calculate( null ) ).getValue() );
+    }
+
+    private static DigestItem effectivePom( ProjectsInputInfo inputs )
+    {
+        final DigestItem item = inputs.getItems().get( 0 );
+        assertEquals( "pom", item.getType() );
+        return item;
+    }
+
+    private ProjectsInputInfo calculate( GitIndex gitIndex ) throws IOException
+    {
+        final FileHashIndex fileHashIndex = FileHashIndex.load( basedir.resolve( "target/filehashes.idx" ), "XX" );
+        return new MavenProjectInput(
+                project,
+                stub( NormalizedModelProvider.class, Collections.singletonMap( "normalizedModel", project.getModel() ) ),
+                null,
+                null,
+                null,
+                stub( CacheConfig.class, config ),
+                null,
+                null,
+                localCache(),
+                fileHashIndex,
+                new DependencyHashIndex( fileHashIndex ),
+                gitIndex,
+                new GlobMatchers(),
+                executor ).calculateChecksum();
+    }
+
+    private LocalCacheRepository localCache()
+    {
+        return ( LocalCacheRepository ) Proxy.newProxyInstance( getClass().getClassLoader(),
+                new Class[] { LocalCacheRepository.class }, ( proxy, method, args ) ->
+                {
+                    switch ( method.getName() )
+                    {
+                        case "findProjectInputs":
+                            return Optional.ofNullable( storedInputs.get( ( String ) args[2] ) );
+                        case "saveProjectInputs":
+                            storedInputs.put( ( String ) args[2], ( ProjectsInputInfo ) args[3] );
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException( method.getName() );
+                    }
+                } );
+    }
+
+    /**
+     * @return stub answering configured values by method name and empty values otherwise
+     */
+    @SuppressWarnings( "unchecked" )
+    private static <T> T stub( Class<T> type, Map<String, Object> values )
+    {
+        return ( T ) Proxy.newProxyInstance( MavenProjectInputChecksumTest.class.getClassLoader(),
+                new Class[] { type }, ( proxy, method, args ) ->
+                {
+                    final Class<?> returnType = method.getReturnType();
+                    if ( values.containsKey( method.getName() ) )
+                    {
+                        return values.get( method.getName() );
+                    }
+                    else if ( returnType == boolean.class )
+                    {
+                        return false;
+                    }
+                    else if ( returnType == int.class )
+                    {
+                        return 0;
+                    }
+                    else if ( returnType == List.class )
+                    {
+                        return Collections.emptyList();
+                    }
+                    else if ( returnType == Set.class )
+                    {
+                        return Collections.emptySet();
+                    }
+                    else if ( returnType == Optional.class )
+                    {
+                        return Optional.empty();
+                    }
+                    return null;
+                } );
+    }
+}
@@ -18,11 +18,16 @@
  * specific language governing permissions and limitations
  * under the License.
  */
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.TreeSet;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -84,4 +89,48 @@ public void testGetDirectoryFiles2()
                 it -> false );
         assertEquals( 1, directoryFiles.size() ); // pom is filtered out by hardcoded if
     }
+
+    @Test
+    public void testGetDirectoryFilesSkipsHiddenAndDirectories( @TempDir Path dir ) throws IOException
+    {
+        Files.createFile( dir.resolve( "Included.java" ) );
+        Files.createFile( dir.resolve( ".Hidden.java" ) );
+        Files.createFile( dir.resolve( "Skipped.java" ) );
+        Files.createFile( dir.resolve( "notes.txt" ) );
+        Files.createDirectories( dir.resolve( "dir.java" ).resolve( "Nested.java" ) );
+
+        List<Path> directoryFiles = new ArrayList<>();
+        MavenProjectInput.walkDirectoryFiles(
+                dir,
+                directoryFiles,
+                MavenProjectInput.DEFAULT_GLOB,
+                it -> it.getFileName().toString().equals( "Skipped.java" ) );
+        assertEquals( 1, directoryFiles.size() );
+        assertEquals( dir.resolve( "Included.java" ), directoryFiles.get( 0 ) );
+    }
+
+    @Test
+    public void testSortInputFilesSameAsComparator()
+    {
+        List<Path> files = Arrays.asList(
+                Paths.get( "src/main/java/b/Z.java" ),
+                Paths.get( "src/main/java/a/Y.java" ),
+                Paths.get( "src/main/java/B/x.java" ),
+                Paths.get( "src/main/java/a/y.java" ),
+                Paths.get( "src/main/java/a/../a/Y.java" ),
+                Paths.get( "src/main/java/a_b/c.java" ),
+                Paths.get( "src/main/java/a/b/c.java" ),
+                Paths.get( "src/main/resources/App.properties" ),
+                Paths.get( "src/main/resources/app.PROPERTIES" ),
+                Paths.get( "src/main/resources/app-test.properties" ),
+                Paths.get( "pom.xml" ) );
+
+        TreeSet<Path> expected = new TreeSet<>( new MavenProjectInput.PathIgnoringCaseComparator() );
+        for ( Path file : files )
+        {
+            expected.add( file.normalize().toAbsolutePath() );
+        }
+
+        assertEquals( new ArrayList<>( expected ), MavenProjectInput.sortInputFiles( files ) );
+    }
 }
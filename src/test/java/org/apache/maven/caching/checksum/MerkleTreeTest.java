@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.caching.xml.build.DigestItem;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MerkleTreeTest
+{
+
+    private final HashAlgorithm algorithm = HashFactory.SHA256.createAlgorithm();
+
+    @Test
+    public void testTreeStructure()
+    {
+        final MerkleTree tree = MerkleTree.build( algorithm, files( "A.java", "a1", "src/main/B.java", "b1",
+                "src/main/C.java", "c1", "src/test/D.java", "d1", "pom.xml", "p1" ) );
+
+        final List<String> paths = tree.getDirectories().stream().map( DigestItem::getValue )
+                .collect( Collectors.toList() );
+        assertEquals( Arrays.asList( ".", "src", "src/main", "src/test" ), paths );
+        assertEquals( tree.getRootHash(), tree.getDirectories().get( 0 ).getHash() );
+        assertEquals( "src/main", MerkleTree.parent( "src/main/B.java" ) );
+        assertEquals( MerkleTree.ROOT, MerkleTree.parent( "pom.xml" ) );
+    }
+
+    @Test
+    public void testFilesOrderIgnored()
+    {
+        final List<DigestItem> files = files( "A.java", "a1", "src/main/B.java", "b1", "src/test/D.java", "d1" );
+        final List<DigestItem> reversed = new ArrayList<>( files );
+        Collections.reverse( reversed );
+
+        assertEquals( MerkleTree.build( algorithm, files ).getRootHash(),
+                MerkleTree.build( algorithm, reversed ).getRootHash() );
+    }
+
+    @Test
+    public void testChangedDirectories()
+    {
+        final MerkleTree baseline = MerkleTree.build( algorithm, files( "A.java", "a1", "src/main/B.java", "b1",
+                "src/test/D.java", "d1" ) );
+        final MerkleTree changed = MerkleTree.build( algorithm, files( "A.java", "a1", "src/main/B.java", "b2",
+                "src/test/D.java", "d1" ) );
+        final MerkleTree renamed = MerkleTree.build( algorithm, files( "A.java", "a1", "src/main/B.java", "b1",
+                "src/test/E.java", "d1" ) );
+        final MerkleTree moved = MerkleTree.build( algorithm, files( "A.java", "a1", "src/main/B.java", "b1",
+                "src/it/D.java", "d1" ) );
+
+        assertTrue( MerkleTree.changedDirectories( baseline.getDirectories(), baseline.getDirectories() ).isEmpty() );
+        assertEquals( new HashSet<>( Arrays.asList( ".", "src", "src/main" ) ),
+                MerkleTree.changedDirectories( changed.getDirectories(), baseline.getDirectories() ) );
+        assertNotEquals( baseline.getRootHash(), renamed.getRootHash() );
+        assertEquals( new HashSet<>( Arrays.asList( ".", "src", "src/test" ) ),
+                MerkleTree.changedDirectories( renamed.getDirectories(), baseline.getDirectories() ) );
+        assertEquals( new HashSet<>( Arrays.asList( ".", "src", "src/it", "src/test" ) ),
+                MerkleTree.changedDirectories( moved.getDirectories(), baseline.getDirectories() ) );
+        assertNull( MerkleTree.changedDirectories( Collections.emptyList(), baseline.getDirectories() ) );
+    }
+
+    private static List<DigestItem> files( String... pathsAndHashes )
+    {
+        final List<DigestItem> files = new ArrayList<>();
+        for ( int i = 0; i < pathsAndHashes.length; i += 2 )
+        {
+            final DigestItem item = new DigestItem();
+            item.setType( "file" );
+            item.setValue( pathsAndHashes[i] );
+            item.setHash( pathsAndHashes[i + 1] );
+            files.add( item );
+        }
+        return files;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.hash.HashFactory;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NormalizingWriterTest
+{
+
+    private static final String[] SEARCH_LIST = { "/home/user/project", "\\", "windows", "linux" };
+    private static final String[] REPLACEMENT_LIST = { "", "/", "os.classifier", "os.classifier" };
+
+    @Test
+    public void testSameAsReplaceEachRepeatedly() throws IOException
+    {
+        final StringBuilder pom = new StringBuilder( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project>\n" );
+        for ( int i = 0; i < 2000; i++ )
+        {
+            pom.append( "  <directory>/home/user/project\\src\\main\\resources</directory>\n" )
+                    .append( "  <classifier>linux-x86_64</classifier><id>windows-" ).append( i ).append( "</id>\n" );
+        }
+        pom.append( "</project>\n" );
+        final String text = pom.toString();
+
+        // write in uneven chunks to cover search strings split between writes
+        for ( int chunk : new int[] { 1, 7, 100, 8191, text.length() } )
+        {
+            final StringWriter out = new StringWriter();
+            final StringBuilder copy = new StringBuilder();
+            final NormalizingWriter writer = write( text, chunk, out, copy );
+            final String expected = StringUtils.replaceEachRepeatedly( text, SEARCH_LIST, REPLACEMENT_LIST );
+            assertFalse( writer.isReplacementRepeatable() );
+            assertEquals( expected, out.toString() );
+            assertEquals( expected, copy.toString() );
+        }
+    }
+
+    @Test
+    public void testRepeatableReplacementDetected() throws IOException
+    {
+        // removing project path joins "lin" and "ux" into a search string which a second pass would replace
+        final String text = "<a>lin/home/user/projectux</a>";
+        for ( int chunk : new int[] { 1, 3, text.length() } )
+        {
+            final StringWriter out = new StringWriter();
+            final NormalizingWriter writer = write( text, chunk, out, null );
+            assertTrue( writer.isReplacementRepeatable() );
+            assertEquals( StringUtils.replaceEach( text, SEARCH_LIST, REPLACEMENT_LIST ), out.toString() );
+        }
+    }
+
+    @Test
+    public void testStreamedHash() throws IOException
+    {
+        final String text = "<path>/home/user/project\\target\\windows</path>\n";
+        final HashAlgorithm algorithm = HashFactory.XX.createAlgorithm();
+        final String hash = algorithm.hash( output ->
+        {
+            final NormalizingWriter writer = new NormalizingWriter( new OutputStreamWriter( output, UTF_8 ),
+                    SEARCH_LIST, REPLACEMENT_LIST, null );
+            writer.write( text );
+            writer.close();
+        } );
+        final String expected = StringUtils.replaceEachRepeatedly( text, SEARCH_LIST, REPLACEMENT_LIST );
+        assertEquals( algorithm.hash( expected.getBytes( UTF_8 ) ), hash );
+    }
+
+    private static NormalizingWriter write( String text, int chunk, StringWriter out, StringBuilder copy )
+            throws IOException
+    {
+        final NormalizingWriter writer = new NormalizingWriter( out, SEARCH_LIST, REPLACEMENT_LIST, copy );
+        for ( int i = 0; i < text.length(); i += chunk )
+        {
+            writer.write( text, i, Math.min( chunk, text.length() - i ) );
+        }
+        writer.close();
+        return writer;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PathExclusionsTest
+{
+
+    private static final Path BASEDIR = Paths.get( "project" ).toAbsolutePath();
+
+    private static final List<Path> EXCLUDES = Arrays.asList(
+            BASEDIR.resolve( "target" ),
+            BASEDIR.resolve( "target/classes" ),
+            BASEDIR.resolve( "src/main/generated" ),
+            Paths.get( "src/test/data" ),
+            Paths.get( "node_modules" ) );
+
+    private static final List<Path> PATHS = Arrays.asList(
+            BASEDIR,
+            BASEDIR.resolve( "target" ),
+            BASEDIR.resolve( "target/classes/A.class" ),
+            BASEDIR.resolve( "targets/A.java" ),
+            BASEDIR.resolve( "src/main/generated/B.java" ),
+            BASEDIR.resolve( "src/main/java/../generated/B.java" ),
+            BASEDIR.resolve( "src/main/generatedSources/B.java" ),
+            BASEDIR.resolve( "src/test/data/x.txt" ),
+            Paths.get( "src/test/data/x.txt" ),
+            Paths.get( "node_modules/lib/index.js" ),
+            Paths.get( "node" ) );
+
+    @Test
+    public void testSameResultAsStartsWith()
+    {
+        final PathExclusions exclusions = new PathExclusions( EXCLUDES );
+        for ( Path path : PATHS )
+        {
+            final Path normalized = path.normalize();
+            final boolean expected = EXCLUDES.stream().anyMatch( normalized::startsWith );
+            assertEquals( expected, exclusions.isExcludedSubpath( path ), path.toString() );
+        }
+    }
+
+    @Test
+    public void testExcludedFileName()
+    {
+        final PathExclusions exclusions = new PathExclusions( EXCLUDES );
+        assertTrue( exclusions.isExcludedFileName( BASEDIR.resolve( "module/node_modules" ) ) );
+        assertTrue( exclusions.isExcludedFileName( Paths.get( "data" ) ) );
+        assertFalse( exclusions.isExcludedFileName( BASEDIR.resolve( "target/A.java" ) ) );
+    }
+}
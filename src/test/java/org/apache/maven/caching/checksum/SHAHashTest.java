@@ -18,10 +18,15 @@
  * specific language governing permissions and limitations
  * under the License.
  */
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
 import org.apache.maven.caching.hash.HashAlgorithm;
 import org.apache.maven.caching.hash.HashChecksum;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.apache.maven.caching.hash.HashFactory.SHA256;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -59,6 +64,17 @@ public void testSimpleHash()
         assertEquals( WORLD_HASH, worldHash );
     }
 
+    @Test
+    public void testFileHash( @TempDir Path tempDir ) throws IOException
+    {
+        final byte[] content = new byte[200 * 1024 + 13];
+        new Random( 42 ).nextBytes( content );
+        final Path file = Files.write( tempDir.resolve( "content.bin" ), content );
+
+        assertEquals( ALGORITHM.hash( content ), ALGORITHM.hash( file ) );
+        assertEquals( HELLO_HASH, ALGORITHM.hash( Files.write( tempDir.resolve( "hello.txt" ), HELLO_ARRAY ) ) );
+    }
+
     @Test
     public void testSimpleChecksum()
     {
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.checksum;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import org.apache.maven.caching.hash.HashAlgorithm;
+import org.apache.maven.caching.hash.HashChecksum;
+import org.apache.maven.caching.hash.HashFactory;
+import org.apache.maven.caching.hash.HexUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class XXH3HashTest
+{
+
+    /**
+     * Length, XXH3 64 and XXH128 hashes of {@link #content(int)} computed by xxHash 0.8.1. Lengths cover all size
+     * classes of the algorithm: up to 16, 128 and 240 bytes, partial and full stripes and blocks
+     */
+    private static final String[][] VECTORS = {
+            { "0", "2d06800538d394c2", "99aa06d3014798d86001c324468d497f" },
+            { "1", "4c5cca45d0f4811f", "495b62073ef70ca44c5cca45d0f4811f" },
+            { "3", "15f7093b173d005c", "46f66cb93538156515f7093b173d005c" },
+            { "9", "cbe393399f17ffbd", "d46556872d230f224376673580310154" },
+            { "17", "208bde5ee2bed407", "18217300b5132d5a78c349fe81b2f26c" },
+            { "129", "f8f76713f2bb60fa", "6881633650cd8924c51bc887976aef63" },
+            { "241", "0b3b630948ce4a00", "92b991a7192f3f080b3b630948ce4a00" },
+            { "1025", "43bd4cafe515b9da", "8fb11f8185e8aa7443bd4cafe515b9da" },
+            { "5000", "2f0a391814a039f6", "84cca2d31e3db6302f0a391814a039f6" },
+            { "100000", "0d217f471e936c8c", "0695c6e3ddcfb8e00d217f471e936c8c" } };
+
+    @Test
+    public void testReferenceHashes() throws NoSuchAlgorithmException
+    {
+        final HashAlgorithm xxh3 = HashFactory.of( "XXH3" ).createAlgorithm();
+        final HashAlgorithm xxh128 = HashFactory.of( "XXH128" ).createAlgorithm();
+        for ( String[] vector : VECTORS )
+        {
+            final byte[] content = content( Integer.parseInt( vector[0] ) );
+            assertEquals( vector[1], xxh3.hash( content ), vector[0] );
+            assertEquals( vector[2], xxh128.hash( content ), vector[0] );
+        }
+    }
+
+    @Test
+    public void testStreamingSameAsOneShot() throws IOException, NoSuchAlgorithmException
+    {
+        for ( String algorithm : new String[] { "XXH3", "XXH128" } )
+        {
+            final HashAlgorithm hashAlgorithm = HashFactory.of( algorithm ).createAlgorithm();
+            for ( String[] vector : VECTORS )
+            {
+                final byte[] content = content( Integer.parseInt( vector[0] ) );
+                final String expected = hashAlgorithm.hash( content );
+                // uneven writes cross internal buffer and stripe boundaries
+                assertEquals( expected, hashAlgorithm.hash( output ->
+                {
+                    int offset = 0;
+                    for ( int length = 1; offset < content.length; length = length * 3 + 1 )
+                    {
+                        final int chunk = Math.min( length, content.length - offset );
+                        output.write( content, offset, chunk );
+                        offset += chunk;
+                    }
+                } ), algorithm + " " + vector[0] );
+            }
+        }
+    }
+
+    @Test
+    public void testFileHash( @TempDir Path tempDir ) throws IOException, NoSuchAlgorithmException
+    {
+        // larger than read chunk and not aligned to stripe
+        final byte[] content = content( 200 * 1024 + 13 );
+        final Path file = Files.write( tempDir.resolve( "content.bin" ), content );
+        final Path empty = Files.write( tempDir.resolve( "empty.bin" ), new byte[0] );
+
+        for ( String algorithm : new String[] { "XXH3", "XXH3MM", "XXH128", "XXH128MM" } )
+        {
+            final HashAlgorithm hashAlgorithm = HashFactory.of( algorithm ).createAlgorithm();
+            assertEquals( hashAlgorithm.hash( content ), hashAlgorithm.hash( file ), algorithm );
+            assertEquals( hashAlgorithm.hash( new byte[0] ), hashAlgorithm.hash( empty ), algorithm );
+        }
+        assertEquals( VECTORS[0][1], HashFactory.of( "XXH3MM" ).createAlgorithm().hash( empty ) );
+        assertEquals( VECTORS[0][2], HashFactory.of( "XXH128MM" ).createAlgorithm().hash( empty ) );
+    }
+
+    @Test
+    public void testChecksumOfConcatenatedHashes() throws NoSuchAlgorithmException
+    {
+        for ( String algorithm : new String[] { "XXH3", "XXH3MM", "XXH128", "XXH128MM" } )
+        {
+            final HashFactory factory = HashFactory.of( algorithm );
+            final HashChecksum checksum = factory.createChecksum( 2 );
+            final String first = checksum.update( content( 5 ) );
+            final String second = checksum.update( content( 17 ) );
+            final String expected = factory.createAlgorithm().hash( HexUtils.decode( first + second ) );
+            assertEquals( expected, checksum.digest(), algorithm );
+        }
+    }
+
+    private static byte[] content( int length )
+    {
+        final byte[] content = new byte[length];
+        for ( int i = 0; i < length; i++ )
+        {
+            content[i] = ( byte ) ( i * 31 + 7 + ( i >> 8 ) );
+        }
+        return content;
+    }
+}
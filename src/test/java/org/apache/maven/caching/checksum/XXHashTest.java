@@ -18,13 +18,19 @@
  * specific language governing permissions and limitations
  * under the License.
  */
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
 import org.apache.maven.caching.hash.HashAlgorithm;
 import org.apache.maven.caching.hash.HashChecksum;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.apache.maven.caching.hash.HashFactory.XX;
+import static org.apache.maven.caching.hash.HashFactory.XXAUTO;
 import static org.apache.maven.caching.hash.HashFactory.XXMM;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -80,6 +86,7 @@ public void testEmptyBuffer()
     {
         assertEmptyBuffer( XX.createChecksum( 0 ) );
         assertEmptyBuffer( XXMM.createChecksum( 0 ) );
+        assertEmptyBuffer( XXAUTO.createChecksum( 0 ) );
     }
 
     @Test
@@ -87,6 +94,7 @@ public void testSingleHash()
     {
         assertSingleHash( XX.createChecksum( 1 ) );
         assertSingleHash( XXMM.createChecksum( 1 ) );
+        assertSingleHash( XXAUTO.createChecksum( 1 ) );
     }
 
     @Test
@@ -94,6 +102,7 @@ public void testSingleChecksum()
     {
         assertSingleChecksum( XX.createChecksum( 1 ) );
         assertSingleChecksum( XXMM.createChecksum( 1 ) );
+        assertSingleChecksum( XXAUTO.createChecksum( 1 ) );
     }
 
     @Test
@@ -101,6 +110,7 @@ public void testNotFullChecksum()
     {
         assertSingleChecksum( XX.createChecksum( 2 ) );
         assertSingleChecksum( XXMM.createChecksum( 2 ) );
+        assertSingleChecksum( XXAUTO.createChecksum( 2 ) );
     }
 
     @Test
@@ -108,6 +118,22 @@ public void testFullChecksum()
     {
         assertFullChecksum( XX.createChecksum( 2 ) );
         assertFullChecksum( XXMM.createChecksum( 2 ) );
+        assertFullChecksum( XXAUTO.createChecksum( 2 ) );
+    }
+
+    @Test
+    public void testFileHash( @TempDir Path tempDir ) throws IOException
+    {
+        // larger than read chunk and not aligned to xxHash stripe
+        final byte[] content = new byte[200 * 1024 + 13];
+        new Random( 42 ).nextBytes( content );
+        final Path file = Files.write( tempDir.resolve( "content.bin" ), content );
+
+        final String expected = ALGORITHM.hash( content );
+        assertEquals( expected, ALGORITHM.hash( file ) );
+        assertEquals( expected, XXMM.createAlgorithm().hash( file ) );
+        assertEquals( expected, XXAUTO.createAlgorithm().hash( file ) );
+        assertEquals( HELLO_HASH, ALGORITHM.hash( Files.write( tempDir.resolve( "hello.txt" ), HELLO_ARRAY ) ) );
     }
 
     private void assertEmptyBuffer( HashChecksum checksum )
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares hashing of whole file content loaded on heap with chunked streaming of file content. Not executed by
+ * surefire, run with JMH runner from test classpath
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class HashBenchmark
+{
+
+    @Param( { "SHA-256", "XX", "XXH3", "XXH128", "BLAKE3", "BLAKE3MM" } )
+    public String algorithm;
+
+    @Param( { "1024", "1048576", "33554432" } )
+    public int size;
+
+    private HashAlgorithm hashAlgorithm;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException, NoSuchAlgorithmException
+    {
+        final byte[] content = new byte[size];
+        new Random( 42 ).nextBytes( content );
+        file = Files.createTempFile( "hash-benchmark", ".bin" );
+        Files.write( file, content );
+        hashAlgorithm = HashFactory.of( algorithm ).createAlgorithm();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists( file );
+    }
+
+    @Benchmark
+    public String readAllBytes() throws IOException
+    {
+        return hashAlgorithm.hash( Files.readAllBytes( file ) );
+    }
+
+    @Benchmark
+    public String streaming() throws IOException
+    {
+        return hashAlgorithm.hash( file );
+    }
+}
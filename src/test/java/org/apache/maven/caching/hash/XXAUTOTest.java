@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.hash;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class XXAUTOTest
+{
+
+    private static final int SIZE = 100 * 1024 + 7;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSameHashForAllStrategies() throws IOException
+    {
+        final byte[] content = new byte[SIZE];
+        new Random( 42 ).nextBytes( content );
+        final Path file = Files.write( tempDir.resolve( "content.bin" ), content );
+        final Path empty = Files.write( tempDir.resolve( "empty.bin" ), new byte[0] );
+
+        final XX.Algorithm xx = new XX.Algorithm();
+        final byte[] expected = xx.hash( content );
+
+        // heap
+        assertArrayEquals( expected, new XXAUTO.Algorithm( SIZE, Long.MAX_VALUE ).hash( file ) );
+        // direct buffer
+        assertArrayEquals( expected, new XXAUTO.Algorithm( 0, Long.MAX_VALUE ).hash( file ) );
+        // mmap
+        assertArrayEquals( expected, new XXAUTO.Algorithm( 0, 1 ).hash( file ) );
+
+        assertArrayEquals( xx.hash( new byte[0] ), new XXAUTO.Algorithm( 0, 1 ).hash( empty ) );
+
+        // heap, reused thread local array after a larger file
+        final byte[] small = Arrays.copyOf( content, 1000 );
+        final Path smallFile = Files.write( tempDir.resolve( "small.bin" ), small );
+        assertArrayEquals( xx.hash( small ), new XXAUTO.Algorithm( SIZE, Long.MAX_VALUE ).hash( smallFile ) );
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.xml;
+
+import org.apache.maven.caching.xml.config.CacheConfig;
+import org.apache.maven.caching.xml.config.Executables;
+import org.apache.maven.caching.xml.config.ExecutionConfigurationScan;
+import org.apache.maven.caching.xml.config.ExecutionControl;
+import org.apache.maven.caching.xml.config.ExecutionIdsList;
+import org.apache.maven.caching.xml.config.GoalReconciliation;
+import org.apache.maven.caching.xml.config.GoalsList;
+import org.apache.maven.caching.xml.config.Input;
+import org.apache.maven.caching.xml.config.PluginConfigurationScan;
+import org.apache.maven.caching.xml.config.PluginSet;
+import org.apache.maven.caching.xml.config.PropertyName;
+import org.apache.maven.caching.xml.config.Reconcile;
+import org.apache.maven.caching.xml.config.TrackedProperty;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheConfigIndexTest
+{
+
+    @Test
+    public void testReconciliationLookup()
+    {
+        final GoalReconciliation anyGroup = reconciliation( null, "maven-compiler-plugin", "compile" );
+        final TrackedProperty tracked = new TrackedProperty();
+        tracked.setPropertyName( "source" );
+        anyGroup.addReconcile( tracked );
+        final PropertyName logged = new PropertyName();
+        logged.setPropertyName( "debug" );
+        anyGroup.addLog( logged );
+        final GoalReconciliation shadowed = reconciliation( null, "maven-compiler-plugin", "compile" );
+        final GoalReconciliation otherGroup = reconciliation( "org.example", "maven-surefire-plugin", "test" );
+        final Reconcile reconcile = new Reconcile();
+        reconcile.addPlugin( anyGroup );
+        reconcile.addPlugin( shadowed );
+        reconcile.addPlugin( otherGroup );
+        final ExecutionControl executionControl = new ExecutionControl();
+        executionControl.setReconcile( reconcile );
+        final CacheConfig config = new CacheConfig();
+        config.setExecutionControl( executionControl );
+
+        final CacheConfigIndex index = new CacheConfigIndex( config );
+        assertSame( anyGroup, index.findReconciliation( "org.apache.maven.plugins", "maven-compiler-plugin",
+                "compile" ) );
+        assertNull( index.findReconciliation( "org.apache.maven.plugins", "maven-compiler-plugin", "testCompile" ) );
+        assertSame( otherGroup, index.findReconciliation( "org.example", "maven-surefire-plugin", "test" ) );
+        assertNull( index.findReconciliation( "org.apache.maven.plugins", "maven-surefire-plugin", "test" ) );
+
+        assertTrue( index.getPropertyNames( anyGroup ).getTracked().contains( "source" ) );
+        assertTrue( index.getPropertyNames( anyGroup ).getLogged().contains( "debug" ) );
+        assertTrue( index.getPropertyNames( anyGroup ).getNolog().isEmpty() );
+    }
+
+    @Test
+    public void testExecutables()
+    {
+        final PluginSet plugin = new PluginSet();
+        plugin.setArtifactId( "maven-deploy-plugin" );
+        final ExecutionIdsList executions = new ExecutionIdsList();
+        executions.setArtifactId( "maven-antrun-plugin" );
+        executions.addExecId( "generate" );
+        final GoalsList goals = new GoalsList();
+        goals.setGroupId( "org.example" );
+        goals.setArtifactId( "example-plugin" );
+        goals.addGoal( "run" );
+        final Executables runAlways = new Executables();
+        runAlways.addPlugin( plugin );
+        runAlways.addExecution( executions );
+        runAlways.addGoalsList( goals );
+        final ExecutionControl executionControl = new ExecutionControl();
+        executionControl.setRunAlways( runAlways );
+        final CacheConfig config = new CacheConfig();
+        config.setExecutionControl( executionControl );
+
+        final CacheConfigIndex index = new CacheConfigIndex( config );
+        assertTrue( index.isRunAlways( "org.apache.maven.plugins", "maven-deploy-plugin", "default-deploy",
+                "deploy" ) );
+        assertTrue( index.isRunAlways( "org.apache.maven.plugins", "maven-antrun-plugin", "generate", "run" ) );
+        assertFalse( index.isRunAlways( "org.apache.maven.plugins", "maven-antrun-plugin", "other", "run" ) );
+        assertTrue( index.isRunAlways( "org.example", "example-plugin", "default", "run" ) );
+        assertFalse( index.isRunAlways( "org.other", "example-plugin", "default", "run" ) );
+        assertFalse( index.isIgnoreMissing( "org.apache.maven.plugins", "maven-deploy-plugin", "default-deploy",
+                "deploy" ) );
+    }
+
+    @Test
+    public void testPluginScans()
+    {
+        final ExecutionConfigurationScan first = new ExecutionConfigurationScan();
+        first.addExecId( "a" );
+        first.addExecId( "b" );
+        final ExecutionConfigurationScan second = new ExecutionConfigurationScan();
+        second.addExecId( "b" );
+        second.addExecId( "c" );
+        final PluginConfigurationScan pluginScan = new PluginConfigurationScan();
+        pluginScan.setArtifactId( "maven-assembly-plugin" );
+        pluginScan.addExecution( first );
+        pluginScan.addExecution( second );
+        final Input input = new Input();
+        input.addPlugin( pluginScan );
+        final CacheConfig config = new CacheConfig();
+        config.setInput( input );
+
+        final CacheConfigIndex index = new CacheConfigIndex( config );
+        assertSame( pluginScan, index.findPluginScan( "org.apache.maven.plugins", "maven-assembly-plugin" ) );
+        assertNull( index.findPluginScan( "org.apache.maven.plugins", "maven-jar-plugin" ) );
+        assertSame( first, index.findExecutionScan( pluginScan, "b" ) );
+        assertSame( second, index.findExecutionScan( pluginScan, "c" ) );
+        assertNull( index.findExecutionScan( pluginScan, "d" ) );
+    }
+
+    private static GoalReconciliation reconciliation( String groupId, String artifactId, String goal )
+    {
+        final GoalReconciliation reconciliation = new GoalReconciliation();
+        reconciliation.setGroupId( groupId );
+        reconciliation.setArtifactId( artifactId );
+        reconciliation.setGoal( goal );
+        return reconciliation;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matches 1000 output file names against output exclude patterns one by one and with {@link OutputExcludes}. Patterns
+ * are mostly extension and classifier suffixes with a few regular expressions. Not executed by surefire, run with JMH
+ * runner from test classpath
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class OutputExcludesBenchmark
+{
+
+    private static final int NAMES = 1000;
+    private static final String[] EXTENSIONS = { "jar", "war", "pom", "zip", "tar.gz", "xml", "json", "so" };
+    private static final String[] CLASSIFIERS = { "", "-sources", "-javadoc", "-tests", "-linux-x86_64", "-dist" };
+
+    @Param( { "5", "20", "50" } )
+    private int patternCount;
+
+    private List<Pattern> patterns;
+    private OutputExcludes outputExcludes;
+    private List<String> names;
+
+    @Setup
+    public void setUp()
+    {
+        patterns = new ArrayList<>( patternCount );
+        for ( int i = 0; i < patternCount; i++ )
+        {
+            switch ( i % 5 )
+            {
+                case 0:
+                    patterns.add( Pattern.compile( ".*\\.ext" + i ) );
+                    break;
+                case 1:
+                    patterns.add( Pattern.compile( ".*-classifier" + i + "\\.jar" ) );
+                    break;
+                case 2:
+                    patterns.add( Pattern.compile( "generated" + i + "-.*" ) );
+                    break;
+                case 3:
+                    patterns.add( Pattern.compile( "module" + i + "-[0-9.]+(-SNAPSHOT)?\\.jar" ) );
+                    break;
+                default:
+                    patterns.add( Pattern.compile( "(report|log)" + i + "-\\d+\\.[a-z]+" ) );
+                    break;
+            }
+        }
+        outputExcludes = new OutputExcludes( patterns );
+        names = new ArrayList<>( NAMES );
+        for ( int i = 0; i < NAMES; i++ )
+        {
+            names.add( "module" + i % 100 + "-1.0" + CLASSIFIERS[i % CLASSIFIERS.length] + "."
+                    + EXTENSIONS[i % EXTENSIONS.length] );
+        }
+    }
+
+    @Benchmark
+    public int patternsOneByOne()
+    {
+        int count = 0;
+        for ( String name : names )
+        {
+            for ( Pattern pattern : patterns )
+            {
+                if ( pattern.matcher( name ).matches() )
+                {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int outputExcludes()
+    {
+        int count = 0;
+        for ( String name : names )
+        {
+            if ( outputExcludes.matches( name ) )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+}
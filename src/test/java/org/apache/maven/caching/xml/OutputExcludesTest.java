@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.caching.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class OutputExcludesTest
+{
+
+    private static final String[] PATTERNS = {
+            "module-a-1\\.0\\.jar",
+            ".*\\.zip",
+            ".*-javadoc\\.jar",
+            "tmp.*",
+            "build-[0-9]+\\.log",
+            "(?i).*\\.TGZ",
+            "(\\w+)-\\1\\.txt",
+            "(?<name>x+)\\.bin",
+            "report-(?<id>\\d+)\\.html",
+            ".*\\.tar\\.gz|.*\\.tar",
+    };
+
+    private static final String[] NAMES = {
+            "module-a-1.0.jar", "module-a-1x0.jar", "module-a-1.0.jar.sha1",
+            "dist.zip", ".zip", "zip", "dist.zip.asc",
+            "lib-javadoc.jar", "lib-sources.jar",
+            "tmp", "tmp123", "atmp",
+            "build-12.log", "build-.log",
+            "dist.tgz", "dist.TGZ", "dist.tg",
+            "abc-abc.txt", "abc-abd.txt",
+            "xx.bin", "y.bin",
+            "report-1.html", "report-.html",
+            "dist.tar", "dist.tar.gz",
+            "dist\n.zip", "tmp\nfile", "",
+    };
+
+    @Test
+    public void testSameAsMatchingPatternsOneByOne()
+    {
+        final List<Pattern> patterns = new ArrayList<>();
+        for ( String pattern : PATTERNS )
+        {
+            patterns.add( Pattern.compile( pattern ) );
+        }
+        final OutputExcludes excludes = new OutputExcludes( patterns );
+        for ( String name : NAMES )
+        {
+            final boolean expected = patterns.stream().anyMatch( pattern -> pattern.matcher( name ).matches() );
+            assertEquals( expected, excludes.matches( name ), name );
+        }
+    }
+
+    @Test
+    public void testNoPatterns()
+    {
+        final OutputExcludes excludes = new OutputExcludes( Arrays.asList() );
+        assertFalse( excludes.matches( "a.jar" ) );
+        assertFalse( excludes.matches( "" ) );
+    }
+
+    @Test
+    public void testLiteral()
+    {
+        assertEquals( "a-1.0.jar", OutputExcludes.literal( "a-1\\.0\\.jar" ) );
+        assertEquals( "", OutputExcludes.literal( "" ) );
+        assertNull( OutputExcludes.literal( "a.jar" ) );
+        assertNull( OutputExcludes.literal( "a\\d" ) );
+        assertNull( OutputExcludes.literal( "\\Qa.jar\\E" ) );
+        assertNull( OutputExcludes.literal( "a\\" ) );
+    }
+}